@@ -10,14 +10,27 @@ import org.springframework.data.domain.Persistable;
  *
  * @param <ID> the type of the identifier.
  */
-public abstract class AbstractPersistable<ID extends Serializable> implements Persistable<ID> {
+public abstract class AbstractPersistable<ID extends Serializable> implements Persistable<ID>, ChangeTrackable {
 
+    @Transient
+    private transient Object[] loadedState;
+    
     @Override
     @Transient
     public boolean isNew() {
         return getId() == null;
     }
 
+    @Override
+    public Object[] loadedState() {
+        return loadedState;
+    }
+    
+    @Override
+    public void loadedState(Object[] state) {
+        this.loadedState = state;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (null == obj) {
@@ -0,0 +1,25 @@
+package org.springframework.data.mybatis.domain;
+
+/**
+ * Entities implementing this interface can keep the column values they were loaded with,
+ * so that repositories with change tracking enabled only update the changed columns.
+ * 
+ * @see org.springframework.data.mybatis.repository.DynamicUpdate
+ */
+public interface ChangeTrackable {
+
+    /**
+     * Get the column values of the entity when it was last loaded or saved.
+     * 
+     * @return loaded column values, {@literal null} if the entity is not tracked
+     */
+    Object[] loadedState();
+
+    /**
+     * Keep the column values of the entity when it is loaded or saved.
+     * 
+     * @param state loaded column values
+     */
+    void loadedState(Object[] state);
+
+}
@@ -0,0 +1,69 @@
+package org.springframework.data.mybatis.domain;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+/**
+ * Position of a row in a keyset (seek) pagination: the values of the sort properties and the identifier 
+ * of the row. The next window starts right after the position, no matter how deep it is.
+ *
+ * @see Window
+ */
+public final class KeysetPosition {
+    
+    private static final KeysetPosition INITIAL = new KeysetPosition(Collections.emptyMap());
+    
+    private final Map<String, Object> keys;
+    
+    private KeysetPosition(Map<String, Object> keys) {
+        this.keys = keys;
+    }
+    
+    /**
+     * Get the position before the first row
+     * @return initial position
+     */
+    public static KeysetPosition initial() {
+        return INITIAL;
+    }
+    
+    /**
+     * Create a position with the given values
+     * @param keys values of the sort properties and the identifier property, keyed by property name, 
+     * {@literal null} values are not supported
+     * @return the position
+     */
+    public static KeysetPosition of(Map<String, ?> keys) {
+        Assert.notNull(keys, "Keys must not be null.");
+        keys.forEach((property, value) -> Assert.notNull(value, () -> "Keyset position has a null value of property: " 
+                + property + ", sort properties must not be null."));
+        return keys.isEmpty() ? INITIAL : new KeysetPosition(Collections.unmodifiableMap(new LinkedHashMap<>(keys)));
+    }
+    
+    public boolean isInitial() {
+        return keys.isEmpty();
+    }
+    
+    public Map<String, Object> getKeys() {
+        return keys;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || obj instanceof KeysetPosition && keys.equals(((KeysetPosition) obj).keys);
+    }
+    
+    @Override
+    public int hashCode() {
+        return keys.hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return "KeysetPosition " + keys;
+    }
+    
+}
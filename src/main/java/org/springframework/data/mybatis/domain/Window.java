@@ -0,0 +1,72 @@
+package org.springframework.data.mybatis.domain;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.springframework.util.Assert;
+
+/**
+ * A window of rows read by keyset pagination, with the {@link KeysetPosition} of each row.
+ *
+ * @param <T> the type of the rows
+ */
+public class Window<T> implements Iterable<T> {
+    
+    private final List<T> content;
+    private final List<KeysetPosition> positions;
+    private final boolean hasNext;
+    
+    /**
+     * Creates a new {@link Window}
+     * @param content rows of the window
+     * @param positions position of each row
+     * @param hasNext whether there are rows after the window
+     */
+    public Window(List<T> content, List<KeysetPosition> positions, boolean hasNext) {
+        Assert.notNull(content, "Content must not be null.");
+        Assert.isTrue(positions != null && positions.size() == content.size(), "Each row must have a position.");
+        this.content = Collections.unmodifiableList(content);
+        this.positions = Collections.unmodifiableList(positions);
+        this.hasNext = hasNext;
+    }
+    
+    public List<T> getContent() {
+        return content;
+    }
+    
+    public int size() {
+        return content.size();
+    }
+    
+    public boolean isEmpty() {
+        return content.isEmpty();
+    }
+    
+    public boolean hasNext() {
+        return hasNext;
+    }
+    
+    /**
+     * Get the position of the row at the given index
+     * @param index index of the row
+     * @return position of the row
+     */
+    public KeysetPosition positionAt(int index) {
+        return positions.get(index);
+    }
+    
+    /**
+     * Get the position to read the next window from
+     * @return position of the last row, or initial position if the window is empty
+     */
+    public KeysetPosition nextPosition() {
+        return positions.isEmpty() ? KeysetPosition.initial() : positions.get(positions.size() - 1);
+    }
+    
+    @Override
+    public Iterator<T> iterator() {
+        return content.iterator();
+    }
+    
+}
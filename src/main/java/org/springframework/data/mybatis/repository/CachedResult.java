@@ -0,0 +1,28 @@
+package org.springframework.data.mybatis.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to cache the results of a {@link Query} method, including the content and the total of pages. 
+ * Results are keyed by the statement and its bound parameters, and are invalidated when a table they are read from
+ * is written by a statement of its {@link MybatisRepository} and the transaction completes. Each caller gets its own
+ * copy of a cached result, which it may change. The cache is enabled by 
+ * {@link org.springframework.data.mybatis.repository.support.MybatisRepositoryOptions#setQueryCacheSize(int)}.
+ *
+ * @see org.springframework.data.mybatis.repository.query.QueryCacheInterceptor
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@Documented
+public @interface CachedResult {
+
+    /**
+     * Tables the query reads besides the table of its repository, e.g. tables of joined entities.
+     */
+    String[] tables() default {};
+    
+}
@@ -0,0 +1,21 @@
+package org.springframework.data.mybatis.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to page the queries of a {@link MybatisRepository}, or a single {@link Query} method, with a deferred join: 
+ * the ids of a page are selected with the order and limit first, then the full rows are joined on the ids, so 
+ * the rows skipped by a deep offset are never read in full. It applies to queries selecting from an entity table 
+ * whose other joins are {@code LEFT JOIN}s on unique keys not referenced by the {@code WHERE} clause, 
+ * sort properties must be columns of the entity table. Other queries are paged with a plain limit.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Documented
+public @interface DeferredJoin {
+
+}
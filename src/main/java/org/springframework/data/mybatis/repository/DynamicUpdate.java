@@ -0,0 +1,19 @@
+package org.springframework.data.mybatis.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to enable change tracking for a {@link MybatisRepository}: entities loaded through the repository keep 
+ * a snapshot of their column values, {@code save} only updates the changed columns and skips the update 
+ * if nothing changed. Entities must implement {@link org.springframework.data.mybatis.domain.ChangeTrackable}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface DynamicUpdate {
+
+}
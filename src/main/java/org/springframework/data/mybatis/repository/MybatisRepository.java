@@ -1,8 +1,13 @@
 package org.springframework.data.mybatis.repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mybatis.domain.KeysetPosition;
+import org.springframework.data.mybatis.domain.Window;
 import org.springframework.data.mybatis.statement.Statement;
 import org.springframework.data.relational.core.sql.LockMode;
 import org.springframework.data.repository.NoRepositoryBean;
@@ -24,7 +29,54 @@ public interface MybatisRepository<T, ID> extends PagingAndSortingRepository<T,
      */
     @Override
     <S extends T> List<S> saveAll(Iterable<S> entities);
+
+    /**
+     * Save the given entities with JDBC batches: new entities are inserted and existing entities are updated,
+     * rows are flushed to the database every {@code batchSize} rows.
+     *
+     * @param entities entities to save
+     * @return update count of each entity, in the same order as the given entities
+     */
+    <S extends T> int[] batchSave(Iterable<S> entities);
+    
+    /**
+     * Insert the given new entities with multi-row {@code INSERT} statements, the rows are split into chunks 
+     * to stay under the bind parameter limit of the database. Generated identifiers are set to the entities.
+     *
+     * @param entities new entities without identifier
+     * @return number of inserted rows
+     */
+    <S extends T> int insertAll(Iterable<S> entities);
+    
+    /**
+     * Insert the given entity, or update it if its identifier already exists, with one statement.
+     * <p>
+     * The version of a versioned entity is incremented either way, the row is only updated if it has the version of 
+     * the entity, except on MySQL.
+     *
+     * @param entity entity with identifier
+     * @return the given entity
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the row has another version
+     */
+    <S extends T> S upsert(S entity);
     
+    /**
+     * Upsert the given entities with JDBC batches.
+     *
+     * @param entities entities with identifier
+     * @return update count of each entity, in the same order as the given entities
+     * @see #upsert(Object)
+     */
+    <S extends T> int[] upsertAll(Iterable<S> entities);
+
+    /**
+     * Flush the writes deferred to the unit of work of the current transaction, 
+     * does nothing if unit of work is disabled.
+     *
+     * @see org.springframework.data.mybatis.repository.support.MybatisRepositoryOptions#setUnitOfWork(boolean)
+     */
+    void flush();
+
     /*
      * (non-Javadoc)
      * @see org.springframework.data.repository.CrudRepository#findAll()
@@ -46,6 +98,46 @@ public interface MybatisRepository<T, ID> extends PagingAndSortingRepository<T,
     @Override
     List<T> findAll(Sort sort);
     
+    /**
+     * Read a slice of entities, one more row than the page size is read to know whether there is a next slice, 
+     * no {@code COUNT} query is executed.
+     * 
+     * @param pageable page request
+     * @return the slice of entities
+     */
+    Slice<T> findSlice(Pageable pageable);
+    
+    /**
+     * Read the window of entities after the given position with keyset (seek) pagination: 
+     * {@code WHERE (sort_column, id) > (?, ?) ORDER BY sort_column, id LIMIT ?}, the identifier is always the last key. 
+     * Unlike offset pagination, the cost of a window does not grow with its depth. The sort properties must be 
+     * columns that are never {@literal null}, a row with a {@literal null} key fails the read.
+     * 
+     * @param position position to read after, {@link KeysetPosition#initial()} for the first window
+     * @param size maximum number of entities
+     * @param sort sort of mapped properties
+     * @return the window of entities
+     */
+    Window<T> findAll(KeysetPosition position, int size, Sort sort);
+    
+    /**
+     * Read all entities with a forward-only cursor, rows are fetched as the stream is consumed.
+     * The stream must be consumed and closed within the surrounding transaction.
+     * 
+     * @return stream of all entities, must be closed after use
+     */
+    Stream<T> streamAll();
+    
+    /**
+     * Read all entities sorted by the given properties with a forward-only cursor.
+     * The stream must be consumed and closed within the surrounding transaction.
+     * 
+     * @param sort sort of mapped properties
+     * @return stream of all entities, must be closed after use
+     * @see #streamAll()
+     */
+    Stream<T> streamAll(Sort sort);
+    
     /**
      * Acquire database lock with the given id.
      * 
@@ -0,0 +1,26 @@
+package org.springframework.data.mybatis.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to mark a {@link MybatisRepository} of a small table which is read much more often than written, 
+ * e.g. a table of codes or categories. The whole table is held in memory: {@code findById}, {@code existsById}, 
+ * {@code findAllById}, {@code findAll} and {@code count} are served from an immutable snapshot, which is loaded 
+ * when the repository is created and replaced by a reloaded one after a write through the repository completes. 
+ * Readers never wait for the reload.
+ * <p>
+ * The entities of the snapshot are shared by all reads and must be treated as read-only, an entity is changed by 
+ * saving a changed copy of it. An entity of the snapshot changed in place and saved is replaced when the snapshot is
+ * reloaded, but is seen by other reads until then. Writes to the table other than those of the repository, 
+ * e.g. by {@link Query} methods, are not seen until the next write through the repository.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface ReferenceData {
+
+}
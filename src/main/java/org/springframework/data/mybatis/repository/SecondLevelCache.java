@@ -0,0 +1,25 @@
+package org.springframework.data.mybatis.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to enable the second-level entity cache for a {@link MybatisRepository}: {@code findById} and 
+ * {@code findAllById} read entities from the cache and only query the ids that are missing, writes through 
+ * the repository evict the written ids after the transaction completes. 
+ * <p>
+ * A copy of the entity is cached, and each read gets its own copy of the cached entity, see {@code EntityCopier}. 
+ * Statements of 
+ * {@link Query} methods do not evict the cache, only enable it for entities that are written through the repository.
+ *
+ * @see org.springframework.data.mybatis.repository.support.MybatisRepositoryOptions#setEntityCache
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface SecondLevelCache {
+
+}
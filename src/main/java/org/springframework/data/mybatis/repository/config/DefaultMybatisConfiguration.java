@@ -9,6 +9,12 @@ import org.mybatis.spring.SqlSessionTemplate;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mybatis.repository.query.PageableInteceptor;
+import org.springframework.data.mybatis.repository.query.QueryCacheInterceptor;
+import org.springframework.data.mybatis.repository.support.EntityObjectFactory;
+import org.springframework.data.mybatis.repository.support.EntityObjectWrapperFactory;
+import org.springframework.data.mybatis.repository.support.MybatisRepositoryOptions;
+import org.springframework.data.mybatis.repository.support.UnitOfWorkInterceptor;
+import org.springframework.data.mybatis.statement.StatementCache;
 import org.springframework.data.relational.core.dialect.Dialect;
 import org.springframework.data.relational.core.dialect.MySqlDialect;
 import org.springframework.data.relational.core.mapping.RelationalMappingContext;
@@ -35,11 +41,22 @@ public class DefaultMybatisConfiguration {
     }
     
     @Bean
-    public org.apache.ibatis.session.Configuration mybatisConfiguration(Dialect sqlDialect) {
+    public org.apache.ibatis.session.Configuration mybatisConfiguration(Dialect sqlDialect, 
+            MybatisRepositoryOptions mybatisRepositoryOptions, RelationalMappingContext mappingContext) {
         org.apache.ibatis.session.Configuration config = new org.apache.ibatis.session.Configuration();
         config.setMapUnderscoreToCamelCase(true);
         config.setAutoMappingBehavior(AutoMappingBehavior.PARTIAL);
-        config.addInterceptor(new PageableInteceptor(sqlDialect));
+        config.setObjectFactory(new EntityObjectFactory(mappingContext));
+        config.setObjectWrapperFactory(new EntityObjectWrapperFactory(mappingContext));
+        StatementCache statementCache = new StatementCache(mybatisRepositoryOptions.getStatementCacheSize());
+        config.addInterceptor(new PageableInteceptor(sqlDialect, statementCache));
+        // every executor call passes through each interceptor, so optional ones are only added if enabled
+        if (mybatisRepositoryOptions.getQueryCacheSize() > 0) {
+            config.addInterceptor(new QueryCacheInterceptor(mybatisRepositoryOptions.getQueryCacheSize()));
+        }
+        if (mybatisRepositoryOptions.isUnitOfWork()) {
+            config.addInterceptor(new UnitOfWorkInterceptor());
+        }
         configureMybatis(config);
         return config;
     }
@@ -71,4 +88,19 @@ public class DefaultMybatisConfiguration {
         return new RelationalMappingContext();
     }
     
+    @Bean
+    public MybatisRepositoryOptions mybatisRepositoryOptions() {
+        MybatisRepositoryOptions options = new MybatisRepositoryOptions();
+        configureRepositoryOptions(options);
+        return options;
+    }
+    
+    /**
+     * Override this method to customize repository options, e.g. JDBC batch size.
+     * 
+     * @param options repository options
+     */
+    protected void configureRepositoryOptions(MybatisRepositoryOptions options) {
+    }
+    
 }
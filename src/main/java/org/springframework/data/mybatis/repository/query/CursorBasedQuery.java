@@ -0,0 +1,75 @@
+package org.springframework.data.mybatis.repository.query;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.data.mybatis.statement.Statement;
+import org.springframework.util.Assert;
+
+/**
+ * A query of a repository method returning {@link Stream}, the mapper statement of the method
+ * is read with a mybatis {@link Cursor}, so rows are fetched as the stream is consumed.
+ * <p>
+ * Fetch size and result set type are taken from the statement, e.g. 
+ * {@code @Options(fetchSize = 1000, resultSetType = ResultSetType.FORWARD_ONLY)}. 
+ * The stream must be consumed and closed within the surrounding transaction.
+ */
+public class CursorBasedQuery extends AbstractMybatisQuery {
+
+    private final SqlSessionTemplate sqlSessionTemplate;
+    private final String statementId;
+    private final String declaredStatementId;
+    private final ParamNameResolver paramNameResolver;
+    private volatile String resolvedStatementId;
+    
+    /**
+     * Creates a new {@link CursorBasedQuery}
+     * 
+     * @param queryMethod must not be {@literal null}.
+     * @param mapperInterface must not be {@literal null}.
+     * @param sqlSessionTemplate must not be {@literal null}.
+     */
+    public CursorBasedQuery(MybatisQueryMethod queryMethod, Class<?> mapperInterface, SqlSessionTemplate sqlSessionTemplate) {
+        super(queryMethod);
+        Assert.notNull(mapperInterface, "Mapper interface must not be null!");
+        Assert.notNull(sqlSessionTemplate, "SqlSessionTemplate must not be null!");
+        Method method = queryMethod.getPlainMethod();
+        this.sqlSessionTemplate = sqlSessionTemplate;
+        this.statementId = mapperInterface.getName() + Statement.DOT + method.getName();
+        this.declaredStatementId = method.getDeclaringClass().getName() + Statement.DOT + method.getName();
+        this.paramNameResolver = new ParamNameResolver(sqlSessionTemplate.getConfiguration(), method);
+    }
+
+    @Override
+    public Object execute(Object[] parameters) {
+        Cursor<Object> cursor = sqlSessionTemplate.selectCursor(resolveStatementId(), 
+                paramNameResolver.getNamedParams(parameters));
+        return StreamSupport.stream(cursor.spliterator(), false).onClose(() -> {
+            try {
+                cursor.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    /**
+     * Resolve the statement id at the first execution, when the statements of the mapper have been parsed.
+     */
+    private String resolveStatementId() {
+        String id = resolvedStatementId;
+        if (id == null) {
+            // like mybatis mapper methods, statements of methods inherited from a super interface are resolved at last
+            id = sqlSessionTemplate.getConfiguration().hasStatement(statementId) ? statementId : declaredStatementId;
+            resolvedStatementId = id;
+        }
+        return id;
+    }
+    
+}
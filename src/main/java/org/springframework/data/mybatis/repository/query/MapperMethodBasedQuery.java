@@ -0,0 +1,49 @@
+package org.springframework.data.mybatis.repository.query;
+
+import org.apache.ibatis.binding.MapperMethod;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * A query to be executed based on a repository method, which is a normally a mybatis mapper method.
+ * <p>
+ * The statement and the signature of the method are resolved to a {@link MapperMethod} when the query is created,
+ * which is executed with the {@link SqlSessionTemplate} directly, other than invoking the method on a mapper proxy.
+ */
+public class MapperMethodBasedQuery extends AbstractMybatisQuery {
+
+    private final SqlSessionTemplate sqlSessionTemplate;
+    private final MapperMethod mapperMethod;
+    
+    /**
+     * Creates a new {@link MapperMethodBasedQuery}, the mapper interface must be added to mybatis configuration.
+     * 
+     * @param queryMethod must not be {@literal null}.
+     * @param mapperInterface must not be {@literal null}.
+     * @param sqlSessionTemplate must not be {@literal null}.
+     */
+    public MapperMethodBasedQuery(MybatisQueryMethod queryMethod, Class<?> mapperInterface, 
+            SqlSessionTemplate sqlSessionTemplate) {
+        super(queryMethod);
+        Assert.notNull(mapperInterface, "Mapper interface must not be null!");
+        Assert.notNull(sqlSessionTemplate, "SqlSessionTemplate must not be null!");
+        this.sqlSessionTemplate = sqlSessionTemplate;
+        this.mapperMethod = new MapperMethod(mapperInterface, queryMethod.getPlainMethod(), 
+                sqlSessionTemplate.getConfiguration());
+    }
+
+    @Override
+    public Object execute(Object[] parameters) {
+        return mapperMethod.execute(sqlSessionTemplate, parameters);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.data.repository.query.RepositoryQuery#getQueryMethod()
+     */
+    @Override
+    public MybatisQueryMethod getQueryMethod() {
+        return (MybatisQueryMethod) super.getQueryMethod();
+    }
+    
+}
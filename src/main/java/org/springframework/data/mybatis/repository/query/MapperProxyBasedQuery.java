@@ -7,7 +7,10 @@ import org.springframework.util.ReflectionUtils;
 /**
  * A query to be executed based on a repository method, 
  * which is a normally a mybatis mapper method.
+ * 
+ * @deprecated since the method is invoked reflectively on a mapper proxy, use {@link MapperMethodBasedQuery} instead.
  */
+@Deprecated
 public class MapperProxyBasedQuery extends AbstractMybatisQuery {
 
     private final Object mapperProxyTarget;
@@ -19,21 +19,23 @@ public class MybatisQueryLookupStrategy implements QueryLookupStrategy {
     
     private final SqlSessionTemplate sqlSessionTemplate;
     
-    private Object mapperProxyTarget;
+    private Class<?> mapperInterface;
     
     public MybatisQueryLookupStrategy(SqlSessionTemplate sqlSessionTemplate) {
         Assert.notNull(sqlSessionTemplate, "SqlSessionTemplate must not be null");
         this.sqlSessionTemplate = sqlSessionTemplate;
     }
     
-    private Object getMapperProxyTarget(RepositoryMetadata metadata) throws Exception {
-        if (mapperProxyTarget == null) {
+    /**
+     * Add the repository interface to mybatis configuration as a mapper, if not added yet.
+     */
+    private void addMapper(RepositoryMetadata metadata) throws Exception {
+        if (mapperInterface != metadata.getRepositoryInterface()) {
             MapperFactoryBean<?> mapperFactoryBean = new MapperFactoryBean<>(metadata.getRepositoryInterface());
             mapperFactoryBean.setSqlSessionTemplate(sqlSessionTemplate);
             mapperFactoryBean.afterPropertiesSet();
-            mapperProxyTarget = mapperFactoryBean.getObject();
+            mapperInterface = metadata.getRepositoryInterface();
         }
-        return mapperProxyTarget;
     }
     
     /*
@@ -47,8 +49,11 @@ public class MybatisQueryLookupStrategy implements QueryLookupStrategy {
             ProjectionFactory factory, NamedQueries namedQueries) {
         MybatisQueryMethod queryMethod = new MybatisQueryMethod(method, metadata, factory);
         try {
-            Object mapperProxyTarget = getMapperProxyTarget(metadata);
-            return new MapperProxyBasedQuery(queryMethod, mapperProxyTarget);
+            addMapper(metadata);
+            if (queryMethod.isStreamQuery()) {
+                return new CursorBasedQuery(queryMethod, metadata.getRepositoryInterface(), sqlSessionTemplate);
+            }
+            return new MapperMethodBasedQuery(queryMethod, metadata.getRepositoryInterface(), sqlSessionTemplate);
         } catch (Exception e) {
             throw QueryCreationException.create(queryMethod, e.getMessage());
         }
@@ -1,9 +1,15 @@
 package org.springframework.data.mybatis.repository.query;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.mapping.BoundSql;
@@ -12,15 +18,26 @@ import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.plugin.Intercepts;
 import org.apache.ibatis.plugin.Invocation;
 import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.mybatis.domain.KeysetPosition;
+import org.springframework.data.mybatis.domain.Window;
+import org.springframework.data.mybatis.repository.DeferredJoin;
+import org.springframework.data.mybatis.statement.StatementCache;
+import org.springframework.data.mybatis.statement.TableInfo;
 import org.springframework.data.mybatis.statement.page.Count;
+import org.springframework.data.mybatis.statement.page.Keyset;
 import org.springframework.data.mybatis.statement.page.OrderByAndLimit;
 import org.springframework.data.relational.core.dialect.Dialect;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
 
 @Intercepts(@Signature(type = Executor.class, method = "query", args = {
@@ -28,24 +45,68 @@ import org.springframework.util.CollectionUtils;
 }))
 public class PageableInteceptor implements Interceptor {
     
+    /**
+     * Parameter to read a {@link Slice} instead of a {@link Page} with a statement that is not a mapper method returning {@link Slice}, 
+     * the parameter is found by its type so that user parameters of the same name are not mistaken for it.
+     */
+    public enum SliceMarker {
+        INSTANCE
+    }
+    
+    /**
+     * Key of the {@link SliceMarker} in the parameter map.
+     */
+    public static final String PARAM_KEY_SLICE = "_slice";
+    
     private final Dialect dialect;
+    private final StatementCache statementCache;
+    private final Map<String, Boolean> sliceStatements = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> deferredJoinStatements = new ConcurrentHashMap<>();
+    private final Map<String, String> idColumns = new ConcurrentHashMap<>();
     
     public PageableInteceptor(Dialect dialect) {
+        this(dialect, new StatementCache());
+    }
+    
+    /**
+     * Creates a new {@link PageableInteceptor}
+     * @param dialect must not be {@literal null}.
+     * @param statementCache cache of the generated count and paging statements, must not be {@literal null}.
+     */
+    public PageableInteceptor(Dialect dialect, StatementCache statementCache) {
         Assert.notNull(dialect, "Dialect must not be null.");
+        Assert.notNull(statementCache, "StatementCache must not be null.");
         this.dialect = dialect;
+        this.statementCache = statementCache;
+    }
+    
+    /**
+     * Register the id column of an entity table as a unique key, count statements may prune the {@code LEFT JOIN}s 
+     * to the table on its id, and deferred joins select the ids of the table.
+     * @param tableInfo the entity table
+     */
+    public void addUniqueKey(TableInfo tableInfo) {
+        if (tableInfo.getIdColumnName() != null) {
+            idColumns.put(tableInfo.getTable().getName().getReference().toLowerCase(Locale.US),
+                    tableInfo.getIdColumnName().getReference());
+        }
     }
     
-    private static Pageable findPageable(Object parameterObject, boolean isMap) {
+    private boolean isUniqueKey(String table, String column) {
+        return column.equalsIgnoreCase(idColumns.get(table));
+    }
+    
+    private static <P> P findParameter(Object parameterObject, boolean isMap, Class<P> parameterType) {
         if (parameterObject != null) {
-            if (parameterObject instanceof Pageable) {
-                return (Pageable)parameterObject;
+            if (parameterType.isInstance(parameterObject)) {
+                return parameterType.cast(parameterObject);
             }
             if (isMap) {
                 Map<?, ?> queryParams = (Map<?, ?>)parameterObject;
                 for (Map.Entry<?, ?> entry : queryParams.entrySet()) {
                     Object value = entry.getValue();
-                    if (value instanceof Pageable) {
-                        return (Pageable)value;
+                    if (parameterType.isInstance(value)) {
+                        return parameterType.cast(value);
                     }
                 }
             }
@@ -58,46 +119,181 @@ public class PageableInteceptor implements Interceptor {
         Object[] args = invocation.getArgs();
         Object parameterObject = args[1];
         boolean isMap = parameterObject instanceof Map;
-        Pageable pageable = findPageable(parameterObject, isMap);
+        Pageable pageable = findParameter(parameterObject, isMap, Pageable.class);
         if (pageable == null) {
             return invocation.proceed();
         }
+        KeysetPosition position = findParameter(parameterObject, isMap, KeysetPosition.class);
+        if (position != null) {
+            return Collections.singletonList(keyset(invocation, parameterObject, isMap, position, pageable));
+        }
+        MappedStatement ms = (MappedStatement) args[0];
+        boolean slice = isSliceQuery(ms, parameterObject, isMap);
         if (pageable.isUnpaged()) {
-            Page<?> pageData = new PageImpl<>((List<?>)invocation.proceed(), pageable, 0);
+            List<?> content = (List<?>)invocation.proceed();
+            Slice<?> pageData = slice ? new SliceImpl<>(content, pageable, false) : new PageImpl<>(content, pageable, 0);
             return Collections.singletonList(pageData);
         }
         
         @SuppressWarnings("unchecked")
         Map<String, Object> queryParams = isMap ? (Map<String, Object>)parameterObject : new HashMap<>();
-        MappedStatement ms = (MappedStatement) args[0];
         org.apache.ibatis.session.Configuration configuration = ms.getConfiguration();
         BoundSql boundSql = ms.getBoundSql(queryParams);
         String originalSql = boundSql.getSql();
         
-        // configure count statement
-        args[0] = new Count(ms.getId(), originalSql, boundSql.getParameterMappings())
-                .configure(configuration, null, null, null);
-        args[1] = queryParams;
+        if (slice) {
+            // one more row is read to know whether there is a next slice, no count is executed
+            queryParams.put(OrderByAndLimit.PARAM_KEY_OFFSET, (int)pageable.getOffset());
+            queryParams.put(OrderByAndLimit.PARAM_KEY_SIZE, pageable.getPageSize() + 1);
+            args[0] = statementCache.get(configuration, new OrderByAndLimit(ms.getId(), originalSql,
+                    boundSql.getParameterMappings(), ms.getResultMaps(), pageable, dialect, deferredJoinIdColumns(ms)));
+            args[1] = queryParams;
+            List<?> rows = (List<?>) invocation.proceed();
+            boolean hasNext = rows.size() > pageable.getPageSize();
+            List<?> content = hasNext ? new ArrayList<>(rows.subList(0, pageable.getPageSize())) : rows;
+            return Collections.singletonList(new SliceImpl<>(content, pageable, hasNext));
+        }
         
-        // Execute the count statement to get total number
-        List<?> countResult = (List<?>)invocation.proceed();
-        long total = CollectionUtils.isEmpty(countResult) ? 0 : (Long)countResult.get(0);
+        // add pageable parameters
+        queryParams.put(OrderByAndLimit.PARAM_KEY_OFFSET, (int)pageable.getOffset());
+        queryParams.put(OrderByAndLimit.PARAM_KEY_SIZE, pageable.getPageSize());
         
-        List<?> content = Collections.emptyList();
-        if (total > 0) {
-            // add pageable parameters
-            queryParams.put(OrderByAndLimit.PARAM_KEY_OFFSET, (int)pageable.getOffset());
-            queryParams.put(OrderByAndLimit.PARAM_KEY_SIZE, pageable.getPageSize());
-            
-            // configure the pageable statement and get the result rows
-            args[0] = new OrderByAndLimit(ms.getId(), originalSql,
-                    boundSql.getParameterMappings(), ms.getResultMaps(), pageable, dialect)
-                    .configure(configuration, null, null, null);
+        // configure the pageable statement and get the result rows first
+        args[0] = statementCache.get(configuration, new OrderByAndLimit(ms.getId(), originalSql,
+                boundSql.getParameterMappings(), ms.getResultMaps(), pageable, dialect, deferredJoinIdColumns(ms)));
+        args[1] = queryParams;
+        List<?> content = (List<?>) invocation.proceed();
+        
+        long total;
+        if ((pageable.getOffset() == 0 || !content.isEmpty()) && content.size() < pageable.getPageSize()) {
+            // the first page or a partially filled page is the last page, so the total is known without counting
+            total = pageable.getOffset() + content.size();
+        } else {
+            // configure count statement
+            args[0] = statementCache.get(configuration, new Count(ms.getId(), originalSql, 
+                    boundSql.getParameterMappings(), this::isUniqueKey));
             args[1] = queryParams;
-            content = (List<?>) invocation.proceed();
+            
+            // Execute the count statement to get total number
+            List<?> countResult = (List<?>)invocation.proceed();
+            total = CollectionUtils.isEmpty(countResult) ? 0 : (Long)countResult.get(0);
         }
         Page<?> pageData = new PageImpl<>(content, pageable, total);
         return Collections.singletonList(pageData);
     }
     
+    private boolean isSliceQuery(MappedStatement ms, Object parameterObject, boolean isMap) {
+        if (findParameter(parameterObject, isMap, SliceMarker.class) != null) {
+            return true;
+        }
+        return sliceStatements.computeIfAbsent(ms.getId(), PageableInteceptor::isSliceMethod);
+    }
+    
+    /**
+     * Whether the statement is of a mapper method returning {@link Slice} other than {@link Page}.
+     */
+    private static boolean isSliceMethod(String statementId) {
+        boolean slice = false;
+        for (Method method : mapperMethods(statementId)) {
+            if (Page.class.isAssignableFrom(method.getReturnType())) {
+                return false;
+            }
+            slice |= Slice.class.isAssignableFrom(method.getReturnType());
+        }
+        return slice;
+    }
+    
+    /**
+     * Get the id columns of the entity tables if the statement is paged with a deferred join, otherwise {@literal null}.
+     */
+    private Function<String, String> deferredJoinIdColumns(MappedStatement ms) {
+        return deferredJoinStatements.computeIfAbsent(ms.getId(), PageableInteceptor::isDeferredJoinMethod) 
+                ? idColumns::get : null;
+    }
+    
+    /**
+     * Whether the statement is of a mapper method or a mapper annotated with {@link DeferredJoin}.
+     */
+    private static boolean isDeferredJoinMethod(String statementId) {
+        Class<?> mapperType = mapperType(statementId);
+        if (mapperType != null && AnnotatedElementUtils.hasAnnotation(mapperType, DeferredJoin.class)) {
+            return true;
+        }
+        return mapperMethods(statementId).stream()
+                .anyMatch(method -> AnnotatedElementUtils.hasAnnotation(method, DeferredJoin.class));
+    }
+    
+    static Class<?> mapperType(String statementId) {
+        int lastDot = statementId.lastIndexOf('.');
+        if (lastDot < 0) {
+            return null;
+        }
+        try {
+            return ClassUtils.forName(statementId.substring(0, lastDot), ClassUtils.getDefaultClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+    
+    static List<Method> mapperMethods(String statementId) {
+        Class<?> mapperType = mapperType(statementId);
+        if (mapperType == null) {
+            return Collections.emptyList();
+        }
+        String methodName = statementId.substring(statementId.lastIndexOf('.') + 1);
+        List<Method> methods = new ArrayList<>();
+        for (Method method : mapperType.getMethods()) {
+            if (method.getName().equals(methodName)) {
+                methods.add(method);
+            }
+        }
+        return methods;
+    }
+    
+    /**
+     * Read the rows after the position, the keyset position of each row is read from the result objects.
+     */
+    private Window<?> keyset(Invocation invocation, Object parameterObject, boolean isMap, 
+            KeysetPosition position, Pageable pageable) throws Throwable {
+        Object[] args = invocation.getArgs();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> queryParams = isMap ? (Map<String, Object>)parameterObject : new HashMap<>();
+        MappedStatement ms = (MappedStatement) args[0];
+        org.apache.ibatis.session.Configuration configuration = ms.getConfiguration();
+        BoundSql boundSql = ms.getBoundSql(queryParams);
+        
+        // one more row is read to know whether there is a next window
+        int size = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE - 1;
+        Keyset keyset = new Keyset(ms.getId(), boundSql.getSql(), boundSql.getParameterMappings(), ms.getResultMaps(),
+                pageable.getSort(), size + 1, position.isInitial(), dialect, configuration.isMapUnderscoreToCamelCase());
+        List<String> keyProperties = keyset.getKeyProperties();
+        if (!position.isInitial()) {
+            for (int i = 0; i < keyProperties.size(); i++) {
+                Assert.isTrue(position.getKeys().containsKey(keyProperties.get(i)), 
+                        "Keyset position has no value of property: " + keyProperties.get(i));
+                queryParams.put(Keyset.PARAM_KEY_PREFIX + i, position.getKeys().get(keyProperties.get(i)));
+            }
+        }
+        args[0] = statementCache.get(configuration, keyset);
+        args[1] = queryParams;
+        List<?> rows = (List<?>) invocation.proceed();
+        
+        boolean hasNext = rows.size() > size;
+        List<Object> content = new ArrayList<>(hasNext ? rows.subList(0, size) : rows);
+        List<KeysetPosition> positions = new ArrayList<>(content.size());
+        for (Object row : content) {
+            MetaObject metaObject = configuration.newMetaObject(row);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (String keyProperty : keyProperties) {
+                Object value = metaObject.getValue(keyProperty);
+                // a null key of the next position compares to no row
+                Assert.state(value != null, () -> "Keyset pagination does not support null values of sort property: " 
+                        + keyProperty + " in statement: " + ms.getId());
+                keys.put(keyProperty, value);
+            }
+            positions.add(KeysetPosition.of(keys));
+        }
+        return new Window<>(content, positions, hasNext);
+    }
+    
 }
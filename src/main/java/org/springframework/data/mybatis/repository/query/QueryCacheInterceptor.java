@@ -0,0 +1,251 @@
+package org.springframework.data.mybatis.repository.query;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mybatis.domain.KeysetPosition;
+import org.springframework.data.mybatis.repository.CachedResult;
+import org.springframework.data.mybatis.repository.support.BoundedCache;
+import org.springframework.data.mybatis.repository.support.EntityCopier;
+import org.springframework.data.mybatis.statement.TableInfo;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Caches the results of the statements of mapper methods annotated with {@link CachedResult}.
+ * <p>
+ * Each table has a version, which is incremented after a transaction writing the table completes, or at once
+ * if there is no transaction. A table is written by the insert, update and delete statements of the repository
+ * the table is registered with. A result is cached with the versions of its tables taken before it was read,
+ * and is only returned while the versions do not change. Transactions bypass the cache for the tables they have written.
+ * <p>
+ * A copy of a result is cached and a copy of the cached result is returned, so that callers changing their entities, 
+ * e.g. to save them, do not change the results of others. Lookups are lock-free, the least recently used results
+ * are evicted when the cache is full, see {@link BoundedCache}.
+ * <p>
+ * It must be added to mybatis configuration after {@link PageableInteceptor}, so that pages are cached with
+ * their totals, and before {@link org.springframework.data.mybatis.repository.support.UnitOfWorkInterceptor},
+ * so that deferred writes are flushed before the cache is read.
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "query", args = {
+        MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class
+    }),
+    @Signature(type = Executor.class, method = "update", args = {
+        MappedStatement.class, Object.class
+    })
+})
+public class QueryCacheInterceptor implements Interceptor {
+
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private static final String[] NOT_CACHED = {};
+
+    private static final class Entry {
+
+        private final long[] versions;
+        private final Object result;
+
+        Entry(long[] versions, Object result) {
+            this.versions = versions;
+            this.result = result;
+        }
+
+    }
+
+    private final Map<String, String> tables = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Map<String, String[]> statementTables = new ConcurrentHashMap<>();
+    private final BoundedCache<CacheKey, Entry> results;
+
+    public QueryCacheInterceptor() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a new {@link QueryCacheInterceptor}
+     * @param maxSize maximum number of cached results, must be positive
+     */
+    public QueryCacheInterceptor(int maxSize) {
+        this.results = new BoundedCache<>(maxSize);
+    }
+
+    /**
+     * Register the table of a repository, results read from the table are invalidated by the insert, update
+     * and delete statements of the repository.
+     * @param namespace namespace of the repository
+     * @param tableInfo the entity table
+     */
+    public void addRepository(String namespace, TableInfo tableInfo) {
+        tables.put(namespace, tableInfo.getTable().getName().getReference().toLowerCase(Locale.US));
+    }
+
+    /**
+     * Invalidate the cached results read from a table.
+     * @param table name of the table
+     */
+    public void invalidate(String table) {
+        versions.computeIfAbsent(table.toLowerCase(Locale.US), key -> new AtomicLong()).incrementAndGet();
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        if (args.length == 2) {
+            Object updateCount = invocation.proceed();
+            String table = tables.get(namespace(ms.getId()));
+            if (table != null) {
+                written(table);
+            }
+            return updateCount;
+        }
+        String[] queryTables = statementTables.computeIfAbsent(ms.getId(), this::cachedTables);
+        if (queryTables.length == 0 || args[3] != Executor.NO_RESULT_HANDLER || isWritten(queryTables)) {
+            return invocation.proceed();
+        }
+        // the key is created before the paging interceptor changes the arguments
+        CacheKey key = cacheKey((Executor) invocation.getTarget(), ms, args[1], (RowBounds) args[2]);
+        long[] current = new long[queryTables.length];
+        for (int i = 0; i < queryTables.length; i++) {
+            current[i] = versions.computeIfAbsent(queryTables[i], table -> new AtomicLong()).get();
+        }
+        EntityCopier copier = new EntityCopier(ms.getConfiguration());
+        Entry entry = results.get(key);
+        if (entry != null && Arrays.equals(entry.versions, current)) {
+            return copier.copy(entry.result);
+        }
+        Object result = invocation.proceed();
+        results.put(key, new Entry(current, copier.copy(result)));
+        return result;
+    }
+
+    private static String namespace(String statementId) {
+        int lastDot = statementId.lastIndexOf('.');
+        return lastDot < 0 ? statementId : statementId.substring(0, lastDot);
+    }
+
+    /**
+     * Get the tables read by the statement if it is of a mapper method annotated with {@link CachedResult},
+     * an empty array if it is not cached.
+     */
+    private String[] cachedTables(String statementId) {
+        for (Method method : PageableInteceptor.mapperMethods(statementId)) {
+            CachedResult cachedResult = AnnotatedElementUtils.findMergedAnnotation(method, CachedResult.class);
+            if (cachedResult != null) {
+                Set<String> queryTables = new LinkedHashSet<>();
+                String table = tables.get(namespace(statementId));
+                if (table == null) {
+                    // results could never be invalidated
+                    return NOT_CACHED;
+                }
+                queryTables.add(table);
+                for (String other : cachedResult.tables()) {
+                    queryTables.add(other.toLowerCase(Locale.US));
+                }
+                return queryTables.toArray(new String[0]);
+            }
+        }
+        return NOT_CACHED;
+    }
+
+    /**
+     * Create the key of a result from the statement and its bound parameters, and the paging parameters
+     * which are not bound to the statement.
+     */
+    private static CacheKey cacheKey(Executor executor, MappedStatement ms, Object parameterObject, RowBounds rowBounds) {
+        CacheKey key = executor.createCacheKey(ms, parameterObject, rowBounds, ms.getBoundSql(parameterObject));
+        if (parameterObject instanceof Map) {
+            Map<?, ?> queryParams = (Map<?, ?>) parameterObject;
+            for (Object value : queryParams.values()) {
+                if (value instanceof Pageable || value instanceof Sort || value instanceof KeysetPosition 
+                        || value instanceof PageableInteceptor.SliceMarker) {
+                    key.update(value);
+                }
+            }
+        } else if (parameterObject instanceof Pageable || parameterObject instanceof Sort) {
+            key.update(parameterObject);
+        }
+        return key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean isWritten(String[] queryTables) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        Set<String> written = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (written != null) {
+            for (String table : queryTables) {
+                if (written.contains(table)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Invalidate the results of a table written by a statement, after the current transaction completes.
+     */
+    @SuppressWarnings("unchecked")
+    private void written(String table) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(table);
+            return;
+        }
+        Set<String> written = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (written == null) {
+            written = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, written);
+            TransactionSynchronizationManager.registerSynchronization(new WrittenTablesSynchronization(written));
+        }
+        written.add(table);
+    }
+
+    private final class WrittenTablesSynchronization implements TransactionSynchronization {
+
+        private final Set<String> written;
+
+        WrittenTablesSynchronization(Set<String> written) {
+            this.written = written;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(QueryCacheInterceptor.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(QueryCacheInterceptor.this, written);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            written.forEach(QueryCacheInterceptor.this::invalidate);
+            TransactionSynchronizationManager.unbindResourceIfPossible(QueryCacheInterceptor.this);
+        }
+
+    }
+
+}
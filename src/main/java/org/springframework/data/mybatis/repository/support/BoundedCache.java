@@ -0,0 +1,129 @@
+package org.springframework.data.mybatis.repository.support;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.util.Assert;
+
+/**
+ * A bounded concurrent map that evicts the least recently used entries approximately when it is full.
+ * <p>
+ * Lookups are lock-free, each entry records the time of its last access. When the map grows over its maximum size,
+ * a tenth of the map is freed at once, so that eviction does not happen on every miss, and only one thread evicts
+ * at a time, others do not wait. Keys and values must not be {@literal null}.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public class BoundedCache<K, V> {
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private volatile long lastAccess;
+
+        Entry(V value, long lastAccess) {
+            this.value = value;
+            this.lastAccess = lastAccess;
+        }
+
+    }
+
+    private final int maxSize;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    /**
+     * Creates a new {@link BoundedCache}
+     * @param maxSize maximum number of entries, must be positive
+     */
+    public BoundedCache(int maxSize) {
+        Assert.isTrue(maxSize > 0, "Max size must be positive.");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get a cached value.
+     * @param key the key
+     * @return the value, or {@literal null} if it is not cached
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.lastAccess = clock.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Get a cached value, the value is created if it is not cached, only once under concurrency.
+     * @param key the key
+     * @param factory creates the value of the key, must not return {@literal null}
+     * @return the value
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> factory) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            entry = entries.computeIfAbsent(key, k -> new Entry<>(factory.apply(k), clock.incrementAndGet()));
+            evictIfFull();
+        }
+        entry.lastAccess = clock.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Cache a value, replacing the cached value of the key.
+     * @param key the key
+     * @param value the value
+     */
+    public void put(K key, V value) {
+        entries.put(key, new Entry<>(value, clock.incrementAndGet()));
+        evictIfFull();
+    }
+
+    /**
+     * Remove a cached value.
+     * @param key the key
+     */
+    public void remove(K key) {
+        entries.remove(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictIfFull() {
+        if (entries.size() <= maxSize || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int target = maxSize - maxSize / 10;
+            // access times are copied, they keep changing while sorting
+            List<long[]> accesses = new ArrayList<>(entries.size());
+            List<K> keys = new ArrayList<>(entries.size());
+            entries.forEach((key, entry) -> {
+                accesses.add(new long[] {entry.lastAccess, keys.size()});
+                keys.add(key);
+            });
+            if (keys.size() <= target) {
+                return;
+            }
+            accesses.sort(Comparator.comparingLong(access -> access[0]));
+            for (int i = 0; i < keys.size() - target; i++) {
+                entries.remove(keys.get((int) accesses.get(i)[1]));
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+}
@@ -0,0 +1,440 @@
+package org.springframework.data.mybatis.repository.support;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * A channel to invalidate the caches of repositories on other nodes, through a change log table of the database.
+ * <p>
+ * Writes of repositories append the table and the ids of the written entities to the change log, in the transaction
+ * of the writes. Each node polls the change log by sequence, and notifies the listeners of the tables changed by other
+ * nodes: the second-level entity cache evicts the ids, query results of the tables are invalidated, and reference data
+ * is reloaded. Sequences are assigned before transactions commit, so rows may appear out of order, sequences missing
+ * from the change log are waited for until {@link #setGapTimeout(long) gap timeout}.
+ * <p>
+ * Each node records the sequence it has polled up to in a node table, and purges the rows polled by all nodes every
+ * {@link #setPurgeInterval(long) purge interval}, except the last row, so that nodes starting later know where
+ * to begin. A node which has not polled for {@link #setNodeTimeout(long) node timeout} is removed from the node table,
+ * it evicts all its caches when it polls again. The tables are created at startup unless disabled
+ * by {@link #setCreateTable(boolean)}:
+ * <pre>
+ * CREATE TABLE mybatis_change_log (
+ *   seq BIGINT AUTO_INCREMENT PRIMARY KEY,
+ *   table_name VARCHAR(128) NOT NULL,
+ *   entity_id VARCHAR(255),
+ *   node_id VARCHAR(36) NOT NULL
+ * )
+ * CREATE TABLE mybatis_change_log_node (
+ *   node_id VARCHAR(36) PRIMARY KEY,
+ *   seq BIGINT NOT NULL,
+ *   polled_at BIGINT NOT NULL
+ * )
+ * </pre>
+ *
+ * @see MybatisRepositoryFactoryBean
+ */
+public class ChangeLog implements InitializingBean, DisposableBean {
+
+    public static final String DEFAULT_TABLE_NAME = "mybatis_change_log";
+    public static final long DEFAULT_POLL_INTERVAL = 1000L;
+    public static final long DEFAULT_GAP_TIMEOUT = 60000L;
+    public static final long DEFAULT_PURGE_INTERVAL = 60000L;
+    public static final long DEFAULT_NODE_TIMEOUT = 600000L;
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeLog.class);
+
+    /**
+     * Listener of the changes of a table made by other nodes.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Called when an entity of the table is changed by another node.
+         * @param id id of the entity, {@literal null} if any entity of the table may be changed
+         */
+        void changed(String id);
+
+    }
+
+    private final SqlSessionTemplate sqlSessionTemplate;
+    private final DataSource dataSource;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, List<Listener>> listeners = new ConcurrentHashMap<>();
+    private String tableName = DEFAULT_TABLE_NAME;
+    private long pollInterval = DEFAULT_POLL_INTERVAL;
+    private long gapTimeout = DEFAULT_GAP_TIMEOUT;
+    private long purgeInterval = DEFAULT_PURGE_INTERVAL;
+    private long nodeTimeout = DEFAULT_NODE_TIMEOUT;
+    private boolean createTable = true;
+    private ScheduledExecutorService scheduler;
+
+    // guarded by this
+    private long position;
+    private long lastPurge;
+    private final Set<Long> polled = new HashSet<>();
+    private final Map<Long, Long> gaps = new HashMap<>();
+
+    /**
+     * Creates a new {@link ChangeLog} in the database of mybatis configuration.
+     * @param sqlSessionTemplate must not be {@literal null}.
+     */
+    public ChangeLog(SqlSessionTemplate sqlSessionTemplate) {
+        Assert.notNull(sqlSessionTemplate, "SqlSessionTemplate must not be null!");
+        this.sqlSessionTemplate = sqlSessionTemplate;
+        this.dataSource = sqlSessionTemplate.getConfiguration().getEnvironment().getDataSource();
+    }
+
+    /**
+     * Set the name of the change log table, default is {@value #DEFAULT_TABLE_NAME}
+     * @param tableName table name, must not be empty
+     */
+    public void setTableName(String tableName) {
+        Assert.hasText(tableName, "Table name must not be empty.");
+        this.tableName = tableName;
+    }
+
+    /**
+     * Set the milliseconds between polls, default is {@value #DEFAULT_POLL_INTERVAL}
+     * @param pollInterval poll interval, 0 to only poll by {@link #poll()}
+     */
+    public void setPollInterval(long pollInterval) {
+        Assert.isTrue(pollInterval >= 0, "Poll interval must not be negative.");
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Set the milliseconds to wait for a missing sequence, which is of a transaction not committed yet or rolled back,
+     * default is {@value #DEFAULT_GAP_TIMEOUT}
+     * @param gapTimeout gap timeout, should be longer than the longest transaction
+     */
+    public void setGapTimeout(long gapTimeout) {
+        Assert.isTrue(gapTimeout >= 0, "Gap timeout must not be negative.");
+        this.gapTimeout = gapTimeout;
+    }
+
+    /**
+     * Set the milliseconds between purges of the rows polled by all nodes, default is {@value #DEFAULT_PURGE_INTERVAL}
+     * @param purgeInterval purge interval, 0 to only purge by {@link #purge()}
+     */
+    public void setPurgeInterval(long purgeInterval) {
+        Assert.isTrue(purgeInterval >= 0, "Purge interval must not be negative.");
+        this.purgeInterval = purgeInterval;
+    }
+
+    /**
+     * Set the milliseconds after which a node which has not polled is removed from the node table,
+     * so that it does not keep the rows from being purged, default is {@value #DEFAULT_NODE_TIMEOUT}
+     * @param nodeTimeout node timeout, should be much longer than the poll interval
+     */
+    public void setNodeTimeout(long nodeTimeout) {
+        Assert.isTrue(nodeTimeout > 0, "Node timeout must be positive.");
+        this.nodeTimeout = nodeTimeout;
+    }
+
+    /**
+     * Set whether the change log tables are created at startup if not exists, default is true.
+     * The {@code CREATE TABLE IF NOT EXISTS} statement is of MySQL and H2, disable it for other databases.
+     * @param createTable true to create the tables
+     */
+    public void setCreateTable(boolean createTable) {
+        this.createTable = createTable;
+    }
+
+    /**
+     * Add a listener of the changes of a table made by other nodes.
+     * @param table name of the table
+     * @param listener the listener
+     */
+    public void addListener(String table, Listener listener) {
+        listeners.computeIfAbsent(table.toLowerCase(Locale.US), key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        execute(connection -> {
+            if (createTable) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("CREATE TABLE IF NOT EXISTS " + tableName + " (seq BIGINT AUTO_INCREMENT PRIMARY KEY,"
+                            + " table_name VARCHAR(128) NOT NULL, entity_id VARCHAR(255), node_id VARCHAR(36) NOT NULL)");
+                    statement.execute("CREATE TABLE IF NOT EXISTS " + nodeTableName() + " (node_id VARCHAR(36) PRIMARY KEY,"
+                            + " seq BIGINT NOT NULL, polled_at BIGINT NOT NULL)");
+                }
+            }
+            // changes before startup are not of interest, the caches are empty. The last row is never purged,
+            // the change log is only empty before the first write, whose sequences are waited for like gaps.
+            long max = queryForLong(connection, "SELECT MAX(seq) FROM " + tableName, 0L);
+            synchronized (this) {
+                position = max;
+                lastPurge = System.currentTimeMillis();
+                insertNode(connection, position, lastPurge);
+            }
+            return null;
+        });
+        if (pollInterval > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "mybatis-change-log");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    poll();
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to poll change log " + tableName, e);
+                }
+            }, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        try {
+            execute(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "DELETE FROM " + nodeTableName() + " WHERE node_id = ?")) {
+                    statement.setString(1, nodeId);
+                    statement.executeUpdate();
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // removed by other nodes after node timeout
+            logger.warn("Failed to remove node " + nodeId + " from change log " + tableName, e);
+        }
+    }
+
+    private String nodeTableName() {
+        return tableName + "_node";
+    }
+
+    private void insertNode(Connection connection, long seq, long now) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO " + nodeTableName() + " (node_id, seq, polled_at) VALUES (?, ?, ?)")) {
+            statement.setString(1, nodeId);
+            statement.setLong(2, seq);
+            statement.setLong(3, now);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Record the sequence the node has polled up to.
+     * @return false if the node was removed by another node after node timeout, and is inserted again
+     */
+    private boolean updateNode(Connection connection, long seq, long now) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "UPDATE " + nodeTableName() + " SET seq = ?, polled_at = ? WHERE node_id = ?")) {
+            statement.setLong(1, seq);
+            statement.setLong(2, now);
+            statement.setString(3, nodeId);
+            if (statement.executeUpdate() > 0) {
+                return true;
+            }
+        }
+        insertNode(connection, seq, now);
+        return false;
+    }
+
+    private static long queryForLong(Connection connection, String sql, long defaultValue) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery(sql)) {
+            long value = rs.next() ? rs.getLong(1) : defaultValue;
+            return rs.wasNull() ? defaultValue : value;
+        }
+    }
+
+    /**
+     * Append the changes of a table to the change log, in the current transaction if any.
+     * @param table name of the table
+     * @param ids ids of the written entities, {@literal null} if any entity of the table may be written
+     */
+    public void append(String table, Collection<?> ids) {
+        String sql = "INSERT INTO " + tableName + " (table_name, entity_id, node_id) VALUES (?, ?, ?)";
+        String tableKey = table.toLowerCase(Locale.US);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // the connection of the transaction is held by the mybatis session of the transaction
+            try {
+                insert(sqlSessionTemplate.getConnection(), sql, tableKey, ids);
+            } catch (SQLException e) {
+                throw translate(e);
+            }
+        } else {
+            execute(connection -> {
+                insert(connection, sql, tableKey, ids);
+                return null;
+            });
+        }
+    }
+
+    private void insert(Connection connection, String sql, String table, Collection<?> ids) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            if (ids == null) {
+                statement.setString(1, table);
+                statement.setNull(2, Types.VARCHAR);
+                statement.setString(3, nodeId);
+                statement.executeUpdate();
+                return;
+            }
+            for (Object id : ids) {
+                statement.setString(1, table);
+                if (id == null) {
+                    statement.setNull(2, Types.VARCHAR);
+                } else {
+                    statement.setString(2, id.toString());
+                }
+                statement.setString(3, nodeId);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Read the changes appended since the last poll, and notify the listeners of the changes of other nodes.
+     */
+    public synchronized void poll() {
+        List<String[]> changes = new ArrayList<>();
+        List<Long> sequences = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT seq, table_name, entity_id, node_id FROM " + tableName + " WHERE seq > ? ORDER BY seq")) {
+                statement.setLong(1, position);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        long seq = rs.getLong(1);
+                        sequences.add(seq);
+                        // rows after a gap are read again until the gap is closed
+                        if (polled.add(seq) && !nodeId.equals(rs.getString(4))) {
+                            changes.add(new String[] {rs.getString(2), rs.getString(3)});
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+        long highest = sequences.isEmpty() ? position : sequences.get(sequences.size() - 1);
+        for (long seq = position + 1; seq < highest; seq++) {
+            if (!polled.contains(seq)) {
+                gaps.putIfAbsent(seq, now);
+            }
+        }
+        while (true) {
+            long next = position + 1;
+            Long missingSince = gaps.get(next);
+            if (polled.remove(next)) {
+                gaps.remove(next);
+            } else if (missingSince == null || now - missingSince < gapTimeout) {
+                break;
+            } else {
+                gaps.remove(next);
+            }
+            position = next;
+        }
+        boolean registered = execute(connection -> updateNode(connection, position, now));
+        if (!registered) {
+            // rows not polled yet may be purged while the node was removed
+            logger.warn("Node " + nodeId + " was removed from change log " + tableName + ", all caches are evicted");
+            changes.clear();
+            listeners.keySet().forEach(table -> changes.add(new String[] {table, null}));
+        }
+        if (purgeInterval > 0 && now - lastPurge >= purgeInterval) {
+            purge();
+        }
+        for (String[] change : changes) {
+            for (Listener listener : listeners.getOrDefault(change[0].toLowerCase(Locale.US),
+                    Collections.emptyList())) {
+                try {
+                    listener.changed(change[1]);
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to apply change of table " + change[0] + " with id " + change[1], e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove the nodes which have not polled for node timeout, and delete the rows polled by all remaining nodes,
+     * except the last row.
+     */
+    public synchronized void purge() {
+        long now = System.currentTimeMillis();
+        lastPurge = now;
+        int purged = execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "DELETE FROM " + nodeTableName() + " WHERE polled_at < ?")) {
+                statement.setLong(1, now - nodeTimeout);
+                statement.executeUpdate();
+            }
+            // the bounds are queried first, MySQL does not delete with a subquery of the same table
+            long polledByAll = queryForLong(connection, "SELECT MIN(seq) FROM " + nodeTableName(), 0L);
+            long last = queryForLong(connection, "SELECT MAX(seq) FROM " + tableName, 0L);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "DELETE FROM " + tableName + " WHERE seq <= ?")) {
+                statement.setLong(1, Math.min(polledByAll, last - 1));
+                return statement.executeUpdate();
+            }
+        });
+        if (logger.isDebugEnabled()) {
+            logger.debug("Purged " + purged + " rows of change log " + tableName);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionCallback<R> {
+
+        R doInConnection(Connection connection) throws SQLException;
+
+    }
+
+    private <R> R execute(ConnectionCallback<R> callback) {
+        try (Connection connection = dataSource.getConnection()) {
+            return callback.doInConnection(connection);
+        } catch (SQLException e) {
+            throw translate(e);
+        }
+    }
+
+    private RuntimeException translate(SQLException e) {
+        PersistenceException exception = new PersistenceException(e);
+        DataAccessException translated = sqlSessionTemplate.getPersistenceExceptionTranslator()
+                .translateExceptionIfPossible(exception);
+        return translated != null ? translated : exception;
+    }
+
+}
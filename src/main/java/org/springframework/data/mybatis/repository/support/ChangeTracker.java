@@ -0,0 +1,119 @@
+package org.springframework.data.mybatis.repository.support;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.springframework.data.mybatis.domain.ChangeTrackable;
+import org.springframework.data.mybatis.repository.DynamicUpdate;
+import org.springframework.data.mybatis.statement.Statement;
+import org.springframework.data.mybatis.statement.Statements;
+import org.springframework.data.mybatis.statement.TableInfo;
+import org.springframework.data.relational.core.dialect.Dialect;
+import org.springframework.data.relational.core.dialect.RenderContextFactory;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.data.relational.core.sql.render.RenderContext;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Keeps snapshots of the column values of loaded entities, and resolves the update statement
+ * that only writes the changed columns. The changed columns are compared again when the statement is executed,
+ * so the statement updates the columns changed until then.
+ *
+ * @see DynamicUpdate
+ */
+class ChangeTracker {
+
+    private final Configuration config;
+    private final List<SqlIdentifier> columns = new ArrayList<>();
+    private final String[] propertyNames;
+    private final String fullUpdateStatementId;
+    private final String dynamicUpdateStatementId;
+
+    ChangeTracker(Configuration config, String namespace, TableInfo tableInfo, Dialect dialect) {
+        this.config = config;
+        for (SqlIdentifier columnName : tableInfo.getUpdateableColumns()) {
+            // the version is never changed by the application, it is incremented by the update statement
+            if (!columnName.equals(tableInfo.getIdColumnName()) && !columnName.equals(tableInfo.getVersionColumnName())) {
+                columns.add(columnName);
+            }
+        }
+        this.propertyNames = new String[columns.size()];
+        for (int i = 0; i < propertyNames.length; i++) {
+            propertyNames[i] = tableInfo.getMappedPropertyName(columns.get(i));
+        }
+        this.fullUpdateStatementId = namespace + Statement.DOT + Statement.UPDATE_BY_ID;
+        RenderContext renderContext = new RenderContextFactory(dialect).createRenderContext();
+        this.dynamicUpdateStatementId = Statements.configureDynamicUpdateById(config, namespace, renderContext, 
+                tableInfo, columns, this::changedColumns).getId();
+    }
+
+    /**
+     * Keep the current column values of the entity.
+     * @param entity a loaded or saved entity
+     */
+    void snapshot(Object entity) {
+        if (entity instanceof ChangeTrackable) {
+            ((ChangeTrackable) entity).loadedState(currentState(entity));
+        }
+    }
+
+    void snapshotAll(Iterable<?> entities) {
+        for (Object entity : entities) {
+            snapshot(entity);
+        }
+    }
+
+    /**
+     * Resolve the statement to update the entity with.
+     * @param entity an existing entity
+     * @return id of the update statement, or {@literal null} if no column changed
+     */
+    String updateStatementId(Object entity) {
+        BitSet changed = changedColumns(entity);
+        if (changed == null) {
+            return fullUpdateStatementId;
+        }
+        return changed.isEmpty() ? null : dynamicUpdateStatementId;
+    }
+
+    /**
+     * Compare the column values of the entity with its snapshot.
+     * @param entity an existing entity
+     * @return the indexes of the changed columns, or {@literal null} if the entity is not tracked
+     */
+    private BitSet changedColumns(Object entity) {
+        Object[] loadedState = entity instanceof ChangeTrackable ? ((ChangeTrackable) entity).loadedState() : null;
+        if (loadedState == null) {
+            return null;
+        }
+        Object[] state = currentState(entity);
+        BitSet changed = new BitSet(state.length);
+        for (int i = 0; i < state.length; i++) {
+            if (!ObjectUtils.nullSafeEquals(state[i], loadedState[i])) {
+                changed.set(i);
+            }
+        }
+        return changed;
+    }
+
+    private Object[] currentState(Object entity) {
+        MetaObject metaObject = config.newMetaObject(entity);
+        Object[] state = new Object[propertyNames.length];
+        for (int i = 0; i < state.length; i++) {
+            Object value = metaObject.getValue(propertyNames[i]);
+            // mutable values are copied, so that changes made in place are detected
+            if (value instanceof Date) {
+                value = ((Date) value).clone();
+            } else if (value instanceof byte[]) {
+                value = ((byte[]) value).clone();
+            }
+            state[i] = value;
+        }
+        return state;
+    }
+
+}
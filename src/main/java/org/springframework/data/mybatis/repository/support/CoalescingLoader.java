@@ -0,0 +1,130 @@
+package org.springframework.data.mybatis.repository.support;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Coalesces the loads of entities by id from concurrent callers into batches, each batch is loaded by one query.
+ * <p>
+ * The first caller of a batch waits for the batch window, then loads the batch on behalf of all callers of the batch.
+ * A batch reaching the maximum size is loaded at once by the caller which fills it. Callers loading the same id in
+ * a batch get their own copies of the loaded entity. An interrupted first caller stops waiting and loads the batch
+ * at once, its interrupt status is kept.
+ *
+ * @see MybatisRepositoryOptions#setFindByIdBatchWindow(long)
+ */
+class CoalescingLoader<T extends Persistable<?>> {
+
+    private final Function<List<Object>, List<T>> batchLoader;
+    private final UnaryOperator<T> copier;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Object lock = new Object();
+    private Map<Object, List<CompletableFuture<T>>> pending;
+
+    /**
+     * Creates a new {@link CoalescingLoader}
+     * @param batchLoader loads the entities of distinct ids
+     * @param copier copies an entity for each other caller loading the same id
+     * @param window milliseconds to collect a batch
+     * @param maxBatchSize maximum number of ids of a batch
+     */
+    CoalescingLoader(Function<List<Object>, List<T>> batchLoader, UnaryOperator<T> copier, long window, 
+            int maxBatchSize) {
+        this.batchLoader = batchLoader;
+        this.copier = copier;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(window);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Load an entity with the batch of the concurrent callers, the current thread may load the batch.
+     * @param id id of the entity
+     * @return the entity, or {@literal null} if not found
+     */
+    T load(Object id) {
+        Map<Object, List<CompletableFuture<T>>> batch;
+        CompletableFuture<T> future = new CompletableFuture<>();
+        boolean first;
+        boolean full;
+        synchronized (lock) {
+            first = pending == null;
+            if (first) {
+                pending = new LinkedHashMap<>();
+            }
+            batch = pending;
+            batch.computeIfAbsent(id, key -> new ArrayList<>(1)).add(future);
+            full = batch.size() >= maxBatchSize;
+            if (full) {
+                pending = null;
+            }
+        }
+        boolean interrupted = false;
+        try {
+            if (full) {
+                dispatch(batch);
+            } else if (first) {
+                try {
+                    // completed early if another caller fills the batch
+                    future.get(windowNanos, TimeUnit.NANOSECONDS);
+                } catch (TimeoutException | ExecutionException e) {
+                    // the window ends, a failure of the batch is thrown below
+                } catch (InterruptedException e) {
+                    // the batch is loaded without waiting, the interrupt status is restored after loading
+                    interrupted = true;
+                }
+                boolean expired;
+                synchronized (lock) {
+                    expired = pending == batch;
+                    if (expired) {
+                        pending = null;
+                    }
+                }
+                if (expired) {
+                    dispatch(batch);
+                }
+            }
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void dispatch(Map<Object, List<CompletableFuture<T>>> batch) {
+        try {
+            List<T> entities = batchLoader.apply(new ArrayList<>(batch.keySet()));
+            for (T entity : entities) {
+                List<CompletableFuture<T>> futures = batch.get(entity.getId());
+                if (futures != null) {
+                    for (int i = 0; i < futures.size(); i++) {
+                        futures.get(i).complete(i == 0 ? entity : copier.apply(entity));
+                    }
+                }
+            }
+            // ids not found
+            batch.values().forEach(futures -> futures.forEach(future -> future.complete(null)));
+        } catch (RuntimeException | Error e) {
+            batch.values().forEach(futures -> futures.forEach(future -> future.completeExceptionally(e)));
+            throw e;
+        }
+    }
+
+}
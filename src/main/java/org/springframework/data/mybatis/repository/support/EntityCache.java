@@ -0,0 +1,43 @@
+package org.springframework.data.mybatis.repository.support;
+
+/**
+ * A second-level cache of entities keyed by their ids, shared by the repositories of a mybatis configuration.
+ * Entities are grouped into regions, one region per table.
+ * <p>
+ * Implementations must be thread-safe, and may drop entries at any time.
+ *
+ * @see org.springframework.data.mybatis.repository.SecondLevelCache
+ * @see LruEntityCache
+ */
+public interface EntityCache {
+
+    /**
+     * Get a cached entity.
+     * @param region region of the entity
+     * @param id id of the entity
+     * @return the entity, or {@literal null} if it is not cached
+     */
+    Object get(String region, Object id);
+    
+    /**
+     * Cache an entity loaded from the database.
+     * @param region region of the entity
+     * @param id id of the entity
+     * @param entity the entity
+     */
+    void put(String region, Object id, Object entity);
+    
+    /**
+     * Evict an entity if it is cached.
+     * @param region region of the entity
+     * @param id id of the entity
+     */
+    void evict(String region, Object id);
+    
+    /**
+     * Evict all entities of a region.
+     * @param region the region
+     */
+    void evictAll(String region);
+    
+}
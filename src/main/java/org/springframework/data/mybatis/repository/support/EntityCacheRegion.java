@@ -0,0 +1,205 @@
+package org.springframework.data.mybatis.repository.support;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The region of an {@link EntityCache} that a {@link SimpleMybatisRepository} reads and evicts, aware of the
+ * current transaction.
+ * <p>
+ * Ids written in a transaction are evicted at once and again after the transaction completes, they bypass the cache
+ * until then, so that uncommitted entities are never cached and the transaction never reads entities it has changed
+ * from the cache. An entity loaded from the database is only cached if no eviction happened since it was loaded,
+ * so that a concurrent read does not put back an entity which is outdated by a commit.
+ * <p>
+ * A copy of an entity is cached and a copy of the cached entity is returned, so that callers changing their entities, 
+ * e.g. the snapshots of change tracking, do not change the cached entity.
+ */
+class EntityCacheRegion {
+
+    /**
+     * Ids written in the current transaction, bound to the transaction.
+     */
+    private static final class Writes {
+
+        private final Set<Object> ids = new HashSet<>();
+        private boolean all;
+
+        boolean contains(Object id) {
+            return all || ids.contains(id);
+        }
+
+    }
+
+    /**
+     * Key of the writes resource bound to the transaction, one per cache region.
+     */
+    private static final class ResourceKey {
+
+        private final EntityCache cache;
+        private final String region;
+
+        ResourceKey(EntityCache cache, String region) {
+            this.cache = cache;
+            this.region = region;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ResourceKey && ((ResourceKey) obj).cache == cache
+                    && ((ResourceKey) obj).region.equals(region);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(cache) * 31 + region.hashCode();
+        }
+
+    }
+
+    private final EntityCache cache;
+    private final String region;
+    private final ResourceKey key;
+    private final EntityCopier copier;
+    private final AtomicLong evictions = new AtomicLong();
+
+    EntityCacheRegion(EntityCache cache, String region, EntityCopier copier) {
+        this.cache = cache;
+        this.region = region;
+        this.key = new ResourceKey(cache, region);
+        this.copier = copier;
+    }
+
+    /**
+     * Get the number of evictions so far, which is passed to {@link #put(Object, Object, long)} after loading an entity.
+     * @return eviction stamp
+     */
+    long stamp() {
+        return evictions.get();
+    }
+
+    /**
+     * Get a cached entity.
+     * @param id id of the entity
+     * @return a copy of the cached entity, or {@literal null} if it is not cached or written in the current transaction
+     */
+    Object get(Object id) {
+        Writes writes = currentWrites();
+        return writes != null && writes.contains(id) ? null : copier.copy(cache.get(region, id));
+    }
+
+    /**
+     * Cache an entity loaded from the database.
+     * @param id id of the entity
+     * @param entity the entity
+     * @param stamp eviction stamp taken before the entity was loaded
+     */
+    void put(Object id, Object entity, long stamp) {
+        Writes writes = currentWrites();
+        if ((writes == null || !writes.contains(id)) && evictions.get() == stamp) {
+            cache.put(region, id, copier.copy(entity));
+        }
+    }
+
+    /**
+     * Evict an entity written in the current transaction.
+     * @param id id of the entity, ignored if {@literal null}
+     */
+    void evict(Object id) {
+        if (id == null) {
+            return;
+        }
+        evictions.incrementAndGet();
+        cache.evict(region, id);
+        Writes writes = bindWrites();
+        if (writes != null) {
+            writes.ids.add(id);
+        }
+    }
+
+    /**
+     * Evict all entities of the region, e.g. after {@code deleteAll}.
+     */
+    void evictAll() {
+        evictions.incrementAndGet();
+        cache.evictAll(region);
+        Writes writes = bindWrites();
+        if (writes != null) {
+            writes.all = true;
+        }
+    }
+
+    /**
+     * Evict an entity changed by another node.
+     * @param id id of the entity
+     */
+    void invalidate(Object id) {
+        evictions.incrementAndGet();
+        cache.evict(region, id);
+    }
+
+    /**
+     * Evict all entities of the region, some of which are changed by another node.
+     */
+    void invalidateAll() {
+        evictions.incrementAndGet();
+        cache.evictAll(region);
+    }
+
+    private Writes currentWrites() {
+        return TransactionSynchronizationManager.isSynchronizationActive() ?
+                (Writes) TransactionSynchronizationManager.getResource(key) : null;
+    }
+
+    private Writes bindWrites() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Writes writes = (Writes) TransactionSynchronizationManager.getResource(key);
+        if (writes == null) {
+            writes = new Writes();
+            TransactionSynchronizationManager.bindResource(key, writes);
+            TransactionSynchronizationManager.registerSynchronization(new WritesSynchronization(writes));
+        }
+        return writes;
+    }
+
+    private final class WritesSynchronization implements TransactionSynchronization {
+
+        private final Writes writes;
+
+        WritesSynchronization(Writes writes) {
+            this.writes = writes;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(key);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(key, writes);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            // evicted whether committed or not, entities may have been cached by others during the transaction
+            evictions.incrementAndGet();
+            if (writes.all) {
+                cache.evictAll(region);
+            } else {
+                for (Object id : writes.ids) {
+                    cache.evict(region, id);
+                }
+            }
+            TransactionSynchronizationManager.unbindResourceIfPossible(key);
+        }
+
+    }
+
+}
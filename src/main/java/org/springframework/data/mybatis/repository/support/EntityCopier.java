@@ -0,0 +1,120 @@
+package org.springframework.data.mybatis.repository.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.mybatis.domain.KeysetPosition;
+import org.springframework.data.mybatis.domain.Window;
+
+/**
+ * Copies entities shared between callers, e.g. cached entities, so that a caller changing its entity does not
+ * change the entities of others.
+ * <p>
+ * Entities are instantiated by the object factory of mybatis configuration, and their properties with both getter
+ * and setter are copied. Values of types with a type handler are kept, except mutable dates and byte arrays which
+ * are cloned, other values are copied deeply, collections and maps into {@link ArrayList}, {@link LinkedHashSet}
+ * and {@link LinkedHashMap}, the content of pages, slices and windows into new ones. Objects referenced more than once,
+ * e.g. by a bidirectional association, are copied once.
+ */
+public class EntityCopier {
+
+    private final Configuration config;
+
+    public EntityCopier(Configuration config) {
+        this.config = config;
+    }
+
+    /**
+     * Copy an entity.
+     * @param entity the entity, may be {@literal null}
+     * @return a copy of the entity, or {@literal null}
+     */
+    @SuppressWarnings("unchecked")
+    public <E> E copy(E entity) {
+        return (E) copy(entity, new IdentityHashMap<>());
+    }
+
+    private Object copy(Object value, Map<Object, Object> copies) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Date) {
+            return ((Date) value).clone();
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        }
+        if (value.getClass().isEnum() || config.getTypeHandlerRegistry().hasTypeHandler(value.getClass())) {
+            return value;
+        }
+        Object copy = copies.get(value);
+        if (copy != null) {
+            return copy;
+        }
+        if (value instanceof List) {
+            List<Object> list = new ArrayList<>(((List<?>) value).size());
+            copies.put(value, list);
+            for (Object element : (List<?>) value) {
+                list.add(copy(element, copies));
+            }
+            return list;
+        }
+        if (value instanceof Collection) {
+            Set<Object> set = new LinkedHashSet<>();
+            copies.put(value, set);
+            for (Object element : (Collection<?>) value) {
+                set.add(copy(element, copies));
+            }
+            return set;
+        }
+        if (value instanceof Window) {
+            Window<?> window = (Window<?>) value;
+            List<KeysetPosition> positions = new ArrayList<>(window.size());
+            for (int i = 0; i < window.size(); i++) {
+                positions.add(window.positionAt(i));
+            }
+            return new Window<>((List<?>) copy(window.getContent(), copies), positions, window.hasNext());
+        }
+        if (value instanceof Page) {
+            Page<?> page = (Page<?>) value;
+            return new PageImpl<>((List<?>) copy(page.getContent(), copies), page.getPageable(), 
+                    page.getTotalElements());
+        }
+        if (value instanceof Slice) {
+            Slice<?> slice = (Slice<?>) value;
+            return new SliceImpl<>((List<?>) copy(slice.getContent(), copies), slice.getPageable(), slice.hasNext());
+        }
+        if (value instanceof Map) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            copies.put(value, map);
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                map.put(entry.getKey(), copy(entry.getValue(), copies));
+            }
+            return map;
+        }
+        copy = config.getObjectFactory().create(value.getClass());
+        copies.put(value, copy);
+        MetaObject source = config.newMetaObject(value);
+        MetaObject target = config.newMetaObject(copy);
+        for (String property : source.getGetterNames()) {
+            if (target.hasSetter(property)) {
+                target.setValue(property, copy(source.getValue(property), copies));
+            }
+        }
+        return copy;
+    }
+
+}
@@ -0,0 +1,75 @@
+package org.springframework.data.mybatis.repository.support;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.springframework.data.mapping.PreferredConstructor;
+import org.springframework.data.mapping.PreferredConstructor.Parameter;
+import org.springframework.data.mapping.model.EntityInstantiator;
+import org.springframework.data.mapping.model.EntityInstantiators;
+import org.springframework.data.mapping.model.ParameterValueProvider;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ObjectFactory} that instantiates the entities of the {@link RelationalMappingContext} with the class generating
+ * instantiators of Spring Data instead of reflection. Entities without a no-argument constructor, and other types,
+ * are instantiated by {@link DefaultObjectFactory}.
+ *
+ * @see EntityObjectWrapperFactory
+ */
+public class EntityObjectFactory extends DefaultObjectFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ParameterValueProvider<RelationalPersistentProperty> NO_PARAMETERS =
+            new ParameterValueProvider<RelationalPersistentProperty>() {
+
+                @Override
+                public <T> T getParameterValue(Parameter<T, RelationalPersistentProperty> parameter) {
+                    throw new IllegalStateException("No-argument constructor has no parameter: " + parameter.getName());
+                }
+
+            };
+
+    private final transient RelationalMappingContext mappingContext;
+    private final transient EntityInstantiators instantiators = new EntityInstantiators();
+    private final transient Map<Class<?>, Optional<RelationalPersistentEntity<?>>> entities = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new {@link EntityObjectFactory}
+     * @param mappingContext must not be {@literal null}.
+     */
+    public EntityObjectFactory(RelationalMappingContext mappingContext) {
+        Assert.notNull(mappingContext, "RelationalMappingContext must not be null!");
+        this.mappingContext = mappingContext;
+    }
+
+    @Override
+    public <T> T create(Class<T> type, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
+        if (constructorArgTypes == null || constructorArgTypes.isEmpty()) {
+            RelationalPersistentEntity<?> entity = entities.computeIfAbsent(type, this::findEntity).orElse(null);
+            if (entity != null) {
+                EntityInstantiator instantiator = instantiators.getInstantiatorFor(entity);
+                return type.cast(instantiator.createInstance(entity, NO_PARAMETERS));
+            }
+        }
+        return super.create(type, constructorArgTypes, constructorArgs);
+    }
+
+    private Optional<RelationalPersistentEntity<?>> findEntity(Class<?> type) {
+        if (type.isInterface() || !mappingContext.hasPersistentEntityFor(type)) {
+            return Optional.empty();
+        }
+        RelationalPersistentEntity<?> entity = mappingContext.getRequiredPersistentEntity(type);
+        PreferredConstructor<?, RelationalPersistentProperty> constructor = entity.getPersistenceConstructor();
+        return constructor != null && constructor.isNoArgConstructor() ? Optional.of(entity) : Optional.empty();
+    }
+
+}
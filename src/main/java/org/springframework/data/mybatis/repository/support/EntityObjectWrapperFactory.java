@@ -0,0 +1,92 @@
+package org.springframework.data.mybatis.repository.support;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
+import org.apache.ibatis.reflection.wrapper.BeanWrapper;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ObjectWrapperFactory} that reads and writes the properties of the entities of the {@link RelationalMappingContext}
+ * with the class generating {@link PersistentPropertyAccessor}s of Spring Data instead of reflective invokers.
+ * Indexed properties and properties that are not persistent are still accessed by {@link BeanWrapper}.
+ *
+ * @see EntityObjectFactory
+ */
+public class EntityObjectWrapperFactory implements ObjectWrapperFactory {
+
+    private final RelationalMappingContext mappingContext;
+    private final Map<Class<?>, Optional<RelationalPersistentEntity<?>>> entities = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new {@link EntityObjectWrapperFactory}
+     * @param mappingContext must not be {@literal null}.
+     */
+    public EntityObjectWrapperFactory(RelationalMappingContext mappingContext) {
+        Assert.notNull(mappingContext, "RelationalMappingContext must not be null!");
+        this.mappingContext = mappingContext;
+    }
+
+    @Override
+    public boolean hasWrapperFor(Object object) {
+        return entity(object.getClass()) != null;
+    }
+
+    @Override
+    public ObjectWrapper getWrapperFor(MetaObject metaObject, Object object) {
+        return new EntityWrapper(metaObject, object, entity(object.getClass()));
+    }
+
+    private RelationalPersistentEntity<?> entity(Class<?> type) {
+        return entities.computeIfAbsent(type, key -> mappingContext.hasPersistentEntityFor(key)
+                ? Optional.of(mappingContext.getRequiredPersistentEntity(key)) : Optional.empty()).orElse(null);
+    }
+
+    private static final class EntityWrapper extends BeanWrapper {
+
+        private final RelationalPersistentEntity<?> entity;
+        private final PersistentPropertyAccessor<?> accessor;
+
+        EntityWrapper(MetaObject metaObject, Object object, RelationalPersistentEntity<?> entity) {
+            super(metaObject, object);
+            this.entity = entity;
+            this.accessor = entity.getPropertyAccessor(object);
+        }
+
+        @Override
+        public Object get(PropertyTokenizer prop) {
+            RelationalPersistentProperty property = property(prop);
+            return property != null ? accessor.getProperty(property) : super.get(prop);
+        }
+
+        @Override
+        public void set(PropertyTokenizer prop, Object value) {
+            RelationalPersistentProperty property = property(prop);
+            if (property != null) {
+                accessor.setProperty(property, value);
+            } else {
+                super.set(prop, value);
+            }
+        }
+
+        private RelationalPersistentProperty property(PropertyTokenizer prop) {
+            if (prop.getIndex() != null) {
+                return null;
+            }
+            RelationalPersistentProperty property = entity.getPersistentProperty(prop.getName());
+            // immutable properties are set by creating a new instance, which mybatis does not know of
+            return property != null && !property.isImmutable() ? property : null;
+        }
+
+    }
+
+}
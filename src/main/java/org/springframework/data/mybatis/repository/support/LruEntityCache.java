@@ -0,0 +1,69 @@
+package org.springframework.data.mybatis.repository.support;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.util.Assert;
+
+/**
+ * Default {@link EntityCache}, a bounded in-process cache that evicts the least recently used entities of a region
+ * when the region is full.
+ * <p>
+ * Each region is a {@link BoundedCache} of its own, so that lookups are lock-free and evicting a region does not
+ * touch the entities of others.
+ */
+public class LruEntityCache implements EntityCache {
+
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    private final int maxSize;
+    private final Map<String, BoundedCache<Object, Object>> regions = new ConcurrentHashMap<>();
+
+    public LruEntityCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a new {@link LruEntityCache}
+     * @param maxSize maximum number of entities per region, must be positive
+     */
+    public LruEntityCache(int maxSize) {
+        Assert.isTrue(maxSize > 0, "Max size must be positive.");
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public Object get(String region, Object id) {
+        BoundedCache<Object, Object> entities = regions.get(region);
+        return entities != null ? entities.get(id) : null;
+    }
+
+    @Override
+    public void put(String region, Object id, Object entity) {
+        regions.computeIfAbsent(region, key -> new BoundedCache<>(maxSize)).put(id, entity);
+    }
+
+    @Override
+    public void evict(String region, Object id) {
+        BoundedCache<Object, Object> entities = regions.get(region);
+        if (entities != null) {
+            entities.remove(id);
+        }
+    }
+
+    @Override
+    public void evictAll(String region) {
+        regions.remove(region);
+    }
+
+    /**
+     * Get the number of cached entities of a region
+     * @param region the region
+     * @return number of entities
+     */
+    public int size(String region) {
+        BoundedCache<Object, Object> entities = regions.get(region);
+        return entities != null ? entities.size() : 0;
+    }
+
+}
@@ -2,10 +2,14 @@ package org.springframework.data.mybatis.repository.support;
 
 import java.util.Optional;
 
+import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.mybatis.spring.SqlSessionTemplate;
 import org.springframework.data.mybatis.repository.query.MybatisQueryLookupStrategy;
+import org.springframework.data.mybatis.repository.query.PageableInteceptor;
+import org.springframework.data.mybatis.repository.query.QueryCacheInterceptor;
 import org.springframework.data.mybatis.statement.Statements;
+import org.springframework.data.mybatis.statement.TableInfo;
 import org.springframework.data.relational.core.dialect.Dialect;
 import org.springframework.data.relational.core.mapping.RelationalMappingContext;
 import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
@@ -27,6 +31,8 @@ public class MybatisRepositoryFactory extends RepositoryFactorySupport {
     private final RelationalMappingContext mappingContext;
     private final Dialect dialect;
     private final SqlSessionTemplate sqlSessionTemplate;
+    private final MybatisRepositoryOptions options;
+    private ChangeLog changeLog;
 
     /**
      * Creates a new {@link MybatisRepositoryFactory} for the given
@@ -37,14 +43,39 @@ public class MybatisRepositoryFactory extends RepositoryFactorySupport {
      * @param sqlSessionTemplate must not be {@literal null}.
      */
     public MybatisRepositoryFactory(RelationalMappingContext mappingContext, Dialect dialect, SqlSessionTemplate sqlSessionTemplate) {
+        this(mappingContext, dialect, sqlSessionTemplate, new MybatisRepositoryOptions());
+    }
+
+    /**
+     * Creates a new {@link MybatisRepositoryFactory} for the given
+     * {@link RelationalMappingContext}, {@link SqlSessionFactory} and {@link MybatisRepositoryOptions}
+     *
+     * @param mappingContext must not be {@literal null}.
+     * @param dialect must not be {@literal null}.
+     * @param sqlSessionTemplate must not be {@literal null}.
+     * @param options must not be {@literal null}.
+     */
+    public MybatisRepositoryFactory(RelationalMappingContext mappingContext, Dialect dialect, SqlSessionTemplate sqlSessionTemplate,
+            MybatisRepositoryOptions options) {
 
         Assert.notNull(mappingContext, "RelationalMappingContext must not be null!");
         Assert.notNull(dialect, "Dialect must not be null!");
         Assert.notNull(sqlSessionTemplate, "SqlSessionTemplate must not be null!");
+        Assert.notNull(options, "MybatisRepositoryOptions must not be null!");
 
         this.mappingContext = mappingContext;
         this.dialect = dialect;
         this.sqlSessionTemplate = sqlSessionTemplate;
+        this.options = options;
+    }
+
+    /**
+     * Set the change log to invalidate the caches of other nodes through.
+     * 
+     * @param changeLog may be {@literal null}.
+     */
+    public void setChangeLog(@Nullable ChangeLog changeLog) {
+        this.changeLog = changeLog;
     }
 
     @SuppressWarnings("unchecked")
@@ -63,8 +94,23 @@ public class MybatisRepositoryFactory extends RepositoryFactorySupport {
         Class<?> domainType = repositoryInformation.getDomainType();
         Class<?> repositoryType = repositoryInformation.getRepositoryInterface();
         
-        Statements.configure(sqlSessionTemplate.getConfiguration(), repositoryType, domainType, mappingContext, dialect);
-        return new SimpleMybatisRepository<>(sqlSessionTemplate, repositoryType);
+        TableInfo tableInfo = Statements.configure(sqlSessionTemplate.getConfiguration(), repositoryType, domainType, 
+                mappingContext, dialect);
+        Statements.configureStreamAll(sqlSessionTemplate.getConfiguration(), repositoryType.getName(), dialect, 
+                tableInfo, options.getFetchSize());
+        for (Interceptor interceptor : sqlSessionTemplate.getConfiguration().getInterceptors()) {
+            if (interceptor instanceof PageableInteceptor) {
+                ((PageableInteceptor) interceptor).addUniqueKey(tableInfo);
+            } else if (interceptor instanceof QueryCacheInterceptor) {
+                QueryCacheInterceptor queryCache = (QueryCacheInterceptor) interceptor;
+                queryCache.addRepository(repositoryType.getName(), tableInfo);
+                if (changeLog != null) {
+                    String tableName = tableInfo.getTable().getName().getReference();
+                    changeLog.addListener(tableName, id -> queryCache.invalidate(tableName));
+                }
+            }
+        }
+        return new SimpleMybatisRepository<>(sqlSessionTemplate, repositoryType, tableInfo, dialect, options, changeLog);
     }
     
     /*
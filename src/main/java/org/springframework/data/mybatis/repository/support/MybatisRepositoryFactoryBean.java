@@ -22,6 +22,8 @@ public class MybatisRepositoryFactoryBean<T extends Repository<S, ID>, S, ID ext
     private RelationalMappingContext mappingContext;
     private Dialect dialect;
     private SqlSessionTemplate sqlSessionTemplate;
+    private MybatisRepositoryOptions options = new MybatisRepositoryOptions();
+    private ChangeLog changeLog;
 
     /**
      * Creates a new {@link MybatisRepositoryFactoryBean} for the given repository interface.
@@ -38,7 +40,9 @@ public class MybatisRepositoryFactoryBean<T extends Repository<S, ID>, S, ID ext
     @Override
     protected RepositoryFactorySupport doCreateRepositoryFactory() {
 
-        return new MybatisRepositoryFactory(mappingContext, dialect, sqlSessionTemplate);
+        MybatisRepositoryFactory factory = new MybatisRepositoryFactory(mappingContext, dialect, sqlSessionTemplate, options);
+        factory.setChangeLog(changeLog);
+        return factory;
     }
 
     @Autowired
@@ -65,5 +69,19 @@ public class MybatisRepositoryFactoryBean<T extends Repository<S, ID>, S, ID ext
 
         this.sqlSessionTemplate = sqlSessionTemplate;
     }
+    
+    @Autowired(required = false)
+    protected void setOptions(MybatisRepositoryOptions options) {
+
+        Assert.notNull(options, "MybatisRepositoryOptions must not be null");
+
+        this.options = options;
+    }
+    
+    @Autowired(required = false)
+    protected void setChangeLog(ChangeLog changeLog) {
+
+        this.changeLog = changeLog;
+    }
 
 }
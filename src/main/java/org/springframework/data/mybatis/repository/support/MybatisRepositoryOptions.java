@@ -0,0 +1,223 @@
+package org.springframework.data.mybatis.repository.support;
+
+import java.util.Arrays;
+
+import org.springframework.data.mybatis.repository.query.QueryCacheInterceptor;
+import org.springframework.data.mybatis.statement.StatementCache;
+import org.springframework.util.Assert;
+
+/**
+ * Tunable settings shared by all {@link SimpleMybatisRepository} instances.
+ *
+ * @see org.springframework.data.mybatis.repository.config.DefaultMybatisConfiguration#mybatisRepositoryOptions()
+ */
+public class MybatisRepositoryOptions {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = StatementCache.DEFAULT_MAX_SIZE;
+    public static final int DEFAULT_QUERY_CACHE_SIZE = 0;
+    public static final int DEFAULT_FIND_BY_ID_BATCH_SIZE = 256;
+
+    private static final int[] DEFAULT_IN_CLAUSE_BUCKETS = {1, 4, 16, 64, 256};
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private boolean multiRowInsert;
+    private int[] inClauseBuckets = DEFAULT_IN_CLAUSE_BUCKETS;
+    private boolean unitOfWork;
+    private Integer fetchSize = DEFAULT_FETCH_SIZE;
+    private int statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+    private EntityCache entityCache = new LruEntityCache();
+    private int queryCacheSize = DEFAULT_QUERY_CACHE_SIZE;
+    private long findByIdBatchWindow;
+    private int findByIdBatchSize = DEFAULT_FIND_BY_ID_BATCH_SIZE;
+
+    /**
+     * Get the number of rows sent to the database in one JDBC batch
+     * @return batch flush size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Set the number of rows sent to the database in one JDBC batch, default is {@value #DEFAULT_BATCH_SIZE}
+     * @param batchSize batch flush size, must be positive
+     */
+    public void setBatchSize(int batchSize) {
+        Assert.isTrue(batchSize > 0, "Batch size must be positive.");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Whether {@code saveAll} inserts new entities with multi-row {@code INSERT} statements
+     * @return true if multi-row insert is enabled
+     */
+    public boolean isMultiRowInsert() {
+        return multiRowInsert;
+    }
+
+    /**
+     * Set whether {@code saveAll} inserts new entities with multi-row {@code INSERT ... VALUES (…), (…)} statements
+     * instead of JDBC batches, useful for drivers that do not rewrite batched inserts, default is false
+     * @param multiRowInsert true to enable multi-row insert
+     */
+    public void setMultiRowInsert(boolean multiRowInsert) {
+        this.multiRowInsert = multiRowInsert;
+    }
+
+    /**
+     * Get the sizes that {@code IN} lists of ids are padded to, in ascending order
+     * @return a copy of the bucket sizes of {@code IN} lists
+     */
+    public int[] getInClauseBuckets() {
+        return inClauseBuckets.clone();
+    }
+
+    /**
+     * Set the sizes that {@code IN} lists of ids are padded to, default is {@code 1, 4, 16, 64, 256}. 
+     * Id collections are split into chunks of the largest size, and each chunk is padded up to the 
+     * nearest size by repeating its last id, so that only a few distinct statements reach the database.
+     * @param inClauseBuckets bucket sizes, must be positive
+     */
+    public void setInClauseBuckets(int... inClauseBuckets) {
+        Assert.isTrue(inClauseBuckets != null && inClauseBuckets.length > 0, "In clause buckets must not be empty.");
+        int[] buckets = Arrays.copyOf(inClauseBuckets, inClauseBuckets.length);
+        Arrays.sort(buckets);
+        Assert.isTrue(buckets[0] > 0, "In clause buckets must be positive.");
+        this.inClauseBuckets = buckets;
+    }
+
+    /**
+     * Whether writes are deferred to a unit of work of the current transaction
+     * @return true if unit of work is enabled
+     */
+    public boolean isUnitOfWork() {
+        return unitOfWork;
+    }
+
+    /**
+     * Set whether {@code save}, {@code saveAll} and all deletes of repositories are deferred to a unit of work
+     * of the current transaction, default is false. Deferred writes are coalesced per entity and flushed with 
+     * JDBC batches before the transaction commits or before any other statement is executed, 
+     * {@link UnitOfWorkInterceptor} is only added to mybatis configuration if unit of work is enabled.
+     * @param unitOfWork true to enable unit of work
+     */
+    public void setUnitOfWork(boolean unitOfWork) {
+        this.unitOfWork = unitOfWork;
+    }
+
+    /**
+     * Get the number of rows fetched per round trip by {@code streamAll}
+     * @return fetch size, or {@literal null} for the driver default
+     */
+    public Integer getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Set the number of rows fetched per round trip by {@code streamAll}, default is {@value #DEFAULT_FETCH_SIZE}. 
+     * MySQL only streams rows with {@link Integer#MIN_VALUE} or with {@code useCursorFetch=true}.
+     * @param fetchSize fetch size, or {@literal null} for the driver default
+     */
+    public void setFetchSize(Integer fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Get the maximum number of count and paging statements generated at runtime that are cached
+     * @return statement cache size
+     */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * Set the maximum number of count and paging statements generated at runtime that are cached, 
+     * the least recently used statements are evicted, default is {@value #DEFAULT_STATEMENT_CACHE_SIZE}
+     * @param statementCacheSize statement cache size, must be positive
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        Assert.isTrue(statementCacheSize > 0, "Statement cache size must be positive.");
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * Get the second-level cache of entities of repositories annotated with 
+     * {@link org.springframework.data.mybatis.repository.SecondLevelCache}
+     * @return entity cache, or {@literal null} if disabled
+     */
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    /**
+     * Set the second-level cache of entities of repositories annotated with 
+     * {@link org.springframework.data.mybatis.repository.SecondLevelCache}, default is an {@link LruEntityCache} 
+     * of {@value LruEntityCache#DEFAULT_MAX_SIZE} entities per table
+     * @param entityCache entity cache, or {@literal null} to disable it
+     */
+    public void setEntityCache(EntityCache entityCache) {
+        this.entityCache = entityCache;
+    }
+
+    /**
+     * Get the maximum number of cached results of methods annotated with 
+     * {@link org.springframework.data.mybatis.repository.CachedResult}
+     * @return query cache size, 0 if disabled
+     */
+    public int getQueryCacheSize() {
+        return queryCacheSize;
+    }
+
+    /**
+     * Set the maximum number of cached results of methods annotated with 
+     * {@link org.springframework.data.mybatis.repository.CachedResult}, the least recently used results are evicted, 
+     * default is {@value #DEFAULT_QUERY_CACHE_SIZE} which disables the cache. {@link QueryCacheInterceptor} is only added 
+     * to mybatis configuration if the cache is enabled.
+     * @param queryCacheSize query cache size, 0 to disable it
+     */
+    public void setQueryCacheSize(int queryCacheSize) {
+        Assert.isTrue(queryCacheSize >= 0, "Query cache size must not be negative.");
+        this.queryCacheSize = queryCacheSize;
+    }
+
+    /**
+     * Get the milliseconds that concurrent {@code findById} calls are collected into one {@code findAllById} query
+     * @return batch window, 0 if disabled
+     */
+    public long getFindByIdBatchWindow() {
+        return findByIdBatchWindow;
+    }
+
+    /**
+     * Set the milliseconds that concurrent {@code findById} calls are collected into one {@code findAllById} query, 
+     * default is 0 which disables batching. The first call of a batch waits for the window before querying. 
+     * {@code findById} does not start a transaction of its own, calls in transactions of the callers are never batched 
+     * since they may read their own uncommitted writes or their own snapshot.
+     * @param findByIdBatchWindow batch window, must not be negative
+     */
+    public void setFindByIdBatchWindow(long findByIdBatchWindow) {
+        Assert.isTrue(findByIdBatchWindow >= 0, "Find by id batch window must not be negative.");
+        this.findByIdBatchWindow = findByIdBatchWindow;
+    }
+
+    /**
+     * Get the maximum number of ids of a batch of {@code findById} calls
+     * @return find by id batch size
+     */
+    public int getFindByIdBatchSize() {
+        return findByIdBatchSize;
+    }
+
+    /**
+     * Set the maximum number of ids of a batch of {@code findById} calls, a full batch is queried before the window 
+     * ends, default is {@value #DEFAULT_FIND_BY_ID_BATCH_SIZE}
+     * @param findByIdBatchSize find by id batch size, must be positive
+     */
+    public void setFindByIdBatchSize(int findByIdBatchSize) {
+        Assert.isTrue(findByIdBatchSize > 0, "Find by id batch size must be positive.");
+        this.findByIdBatchSize = findByIdBatchSize;
+    }
+
+}
@@ -0,0 +1,190 @@
+package org.springframework.data.mybatis.repository.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.data.domain.Persistable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * All entities of a reference data table held in memory, see {@link org.springframework.data.mybatis.repository.ReferenceData}.
+ * <p>
+ * The table is loaded into an immutable snapshot when the repository is created. Entities with integral ids are
+ * looked up in sorted primitive arrays, others in a hash map. After a transaction writing the table completes, 
+ * or at once if there is no transaction, the table is reloaded and the new snapshot replaces the old one, readers keep 
+ * reading the old snapshot meanwhile. A transaction which has written the table does not read the snapshot until 
+ * it completes.
+ * <p>
+ * Readers share the entities of the snapshot, which are read-only. The snapshot is reloaded after a transaction 
+ * writing the table is rolled back as well, in case an entity of the snapshot was changed to be saved.
+ */
+class ReferenceDataSnapshot<T extends Persistable<?>> {
+
+    /**
+     * Immutable entities of the table.
+     */
+    private static final class Snapshot<T> {
+
+        private final List<T> entities;
+        private final long[] ids;
+        private final Object[] sortedEntities;
+        private final Map<Object, T> entitiesById;
+
+        Snapshot(List<T> entities, long[] ids, Object[] sortedEntities, Map<Object, T> entitiesById) {
+            this.entities = entities;
+            this.ids = ids;
+            this.sortedEntities = sortedEntities;
+            this.entitiesById = entitiesById;
+        }
+
+        @SuppressWarnings("unchecked")
+        T get(Object id) {
+            if (entitiesById != null) {
+                return entitiesById.get(id);
+            }
+            if (!isIntegral(id)) {
+                return null;
+            }
+            int index = Arrays.binarySearch(ids, ((Number) id).longValue());
+            return index < 0 ? null : (T) sortedEntities[index];
+        }
+
+    }
+
+    private final Supplier<List<T>> loader;
+    private final Object lock = new Object();
+    private volatile Snapshot<T> snapshot;
+
+    /**
+     * Creates a new {@link ReferenceDataSnapshot} and loads the table
+     * @param loader reads all entities of the table
+     */
+    ReferenceDataSnapshot(Supplier<List<T>> loader) {
+        this.loader = loader;
+        this.snapshot = load();
+    }
+
+    private static boolean isIntegral(Object id) {
+        return id instanceof Integer || id instanceof Long || id instanceof Short || id instanceof Byte;
+    }
+
+    /**
+     * Whether the snapshot can be read, it can not if the current transaction has written the table.
+     */
+    boolean isReadable() {
+        return !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.getResource(this) == null;
+    }
+
+    /**
+     * Get a read-only entity.
+     * @param id id of the entity
+     * @return the entity, or {@literal null} if not found
+     */
+    T get(Object id) {
+        return current().get(id);
+    }
+
+    /**
+     * Get all read-only entities.
+     * @return an unmodifiable list of the entities in the order they were loaded
+     */
+    List<T> getAll() {
+        return current().entities;
+    }
+
+    long count() {
+        return current().entities.size();
+    }
+
+    private Snapshot<T> current() {
+        Snapshot<T> current = snapshot;
+        // only missing if the last reload failed
+        if (current == null) {
+            synchronized (lock) {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * The table is written, it is reloaded when the current transaction completes.
+     */
+    void written() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reload();
+        } else if (TransactionSynchronizationManager.getResource(this) == null) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new ReloadSynchronization());
+        }
+    }
+
+    /**
+     * Reload the table and replace the snapshot, reloads are serialized so that the last one reads the latest rows.
+     */
+    void reload() {
+        synchronized (lock) {
+            try {
+                snapshot = load();
+            } catch (RuntimeException e) {
+                // loaded again on next read
+                snapshot = null;
+                throw e;
+            }
+        }
+    }
+
+    private Snapshot<T> load() {
+        List<T> entities = Collections.unmodifiableList(new ArrayList<>(loader.get()));
+        boolean integral = true;
+        for (T entity : entities) {
+            integral &= isIntegral(entity.getId());
+        }
+        if (!integral) {
+            Map<Object, T> entitiesById = new HashMap<>();
+            for (T entity : entities) {
+                entitiesById.put(entity.getId(), entity);
+            }
+            return new Snapshot<>(entities, null, null, entitiesById);
+        }
+        List<T> sorted = new ArrayList<>(entities);
+        sorted.sort((a, b) -> Long.compare(((Number) a.getId()).longValue(), ((Number) b.getId()).longValue()));
+        long[] ids = new long[sorted.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ((Number) sorted.get(i).getId()).longValue();
+        }
+        return new Snapshot<>(entities, ids, sorted.toArray(), null);
+    }
+
+    private final class ReloadSynchronization implements TransactionSynchronization {
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(ReferenceDataSnapshot.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(ReferenceDataSnapshot.this, Boolean.TRUE);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ReferenceDataSnapshot.this);
+            reload();
+        }
+
+    }
+
+}
@@ -1,20 +1,58 @@
 package org.springframework.data.mybatis.repository.support;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
 import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Persistable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mybatis.domain.KeysetPosition;
+import org.springframework.data.mybatis.domain.Window;
+import org.springframework.data.mybatis.repository.DynamicUpdate;
 import org.springframework.data.mybatis.repository.MybatisRepository;
+import org.springframework.data.mybatis.repository.ReferenceData;
+import org.springframework.data.mybatis.repository.SecondLevelCache;
+import org.springframework.data.mybatis.repository.query.PageableInteceptor;
 import org.springframework.data.mybatis.statement.Statement;
+import org.springframework.data.mybatis.statement.Statements;
+import org.springframework.data.mybatis.statement.TableInfo;
+import org.springframework.data.relational.core.dialect.Dialect;
 import org.springframework.data.relational.core.sql.LockMode;
 import org.springframework.data.util.Streamable;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
 
 /**
@@ -25,12 +63,58 @@ public class SimpleMybatisRepository<T extends Persistable<?>, ID> implements My
 
     private final SqlSessionTemplate sqlSessionTemplate;
     private final String namespace;
+    private final TableInfo tableInfo;
+    private final Dialect dialect;
+    private final MybatisRepositoryOptions options;
+    private final ChangeTracker changeTracker;
+    private final String versionProperty;
+    private final EntityCacheRegion entityCache;
+    private final ReferenceDataSnapshot<T> referenceData;
+    private final String tableName;
+    private final ChangeLog changeLog;
+    private final CoalescingLoader<T> findByIdLoader;
     
-    public SimpleMybatisRepository(SqlSessionTemplate sqlSessionTemplate, Class<?> repositoryType) {
+    public SimpleMybatisRepository(SqlSessionTemplate sqlSessionTemplate, Class<?> repositoryType, 
+            TableInfo tableInfo, Dialect dialect, MybatisRepositoryOptions options) {
+        this(sqlSessionTemplate, repositoryType, tableInfo, dialect, options, null);
+    }
+    
+    /**
+     * Creates a new {@link SimpleMybatisRepository} whose writes are logged to the change log, 
+     * and whose caches apply the changes of other nodes.
+     */
+    public SimpleMybatisRepository(SqlSessionTemplate sqlSessionTemplate, Class<?> repositoryType, 
+            TableInfo tableInfo, Dialect dialect, MybatisRepositoryOptions options, @Nullable ChangeLog changeLog) {
         Assert.notNull(sqlSessionTemplate, "SqlSessionTemplate is required.");
         Assert.notNull(repositoryType, "repositoryType is required.");
+        Assert.notNull(tableInfo, "TableInfo is required.");
+        Assert.notNull(dialect, "Dialect is required.");
+        Assert.notNull(options, "MybatisRepositoryOptions is required.");
         this.sqlSessionTemplate = sqlSessionTemplate;
         this.namespace = repositoryType.getName();
+        this.tableInfo = tableInfo;
+        this.dialect = dialect;
+        this.options = options;
+        this.changeTracker = AnnotatedElementUtils.hasAnnotation(repositoryType, DynamicUpdate.class) ?
+                new ChangeTracker(sqlSessionTemplate.getConfiguration(), namespace, tableInfo, dialect) : null;
+        this.versionProperty = tableInfo.isVersioned() ? 
+                tableInfo.getMappedPropertyName(tableInfo.getVersionColumnName()) : null;
+        this.tableName = tableInfo.getTable().getName().getReference();
+        Configuration config = sqlSessionTemplate.getConfiguration();
+        EntityCopier copier = new EntityCopier(config);
+        this.entityCache = options.getEntityCache() != null 
+                && AnnotatedElementUtils.hasAnnotation(repositoryType, SecondLevelCache.class) ?
+                new EntityCacheRegion(options.getEntityCache(), tableName, copier) : null;
+        // entities of reference data are tracked once when they are loaded, they are shared by all reads
+        this.referenceData = AnnotatedElementUtils.hasAnnotation(repositoryType, ReferenceData.class) ?
+                new ReferenceDataSnapshot<>(() -> tracked(sqlSessionTemplate.selectList(namespace(Statement.FIND_ALL)))) 
+                : null;
+        this.changeLog = changeLog;
+        if (changeLog != null && (entityCache != null || referenceData != null)) {
+            changeLog.addListener(tableName, this::changed);
+        }
+        this.findByIdLoader = options.getFindByIdBatchWindow() > 0 ? new CoalescingLoader<>(this::selectByIds, 
+                copier::copy, options.getFindByIdBatchWindow(), options.getFindByIdBatchSize()) : null;
     }
     
     private String namespace(String id) {
@@ -45,12 +129,47 @@ public class SimpleMybatisRepository<T extends Persistable<?>, ID> implements My
     @Transactional
     public <S extends T> S save(S instance) {
         Assert.notNull(instance, "The given instance must not be null.");
-        if (instance.isNew()) {
-        	String statementKey = instance.getId() != null ? Statement.INSERT_WITH_ID : Statement.INSERT;
-            sqlSessionTemplate.insert(namespace(statementKey), instance);
+        String statementId = saveStatementId(instance);
+        if (statementId == null) {
+            // nothing changed since the instance was loaded
+            return instance;
+        }
+        evict(instance);
+        UnitOfWork unitOfWork = unitOfWork();
+        if (unitOfWork != null) {
+            // the snapshot is kept until the write is flushed, so that the columns changed by all saves are updated
+            if (instance.isNew()) {
+                initVersion(instance);
+                // the change is logged with the id generated when the insert is flushed
+                unitOfWork.write(UnitOfWork.Kind.INSERT, namespace, statementId, instance, instance.getId(), 
+                        count -> {
+                            tracked(instance);
+                            written(Collections.singletonList(instance.getId()));
+                        });
+                return instance;
+            } else {
+                unitOfWork.write(UnitOfWork.Kind.UPDATE, namespace, statementId, instance, instance.getId(), 
+                        count -> {
+                            if (versionProperty != null) {
+                                checkVersion(instance, count);
+                                incrementVersion(instance);
+                            }
+                            tracked(instance);
+                        });
+            }
+        } else if (instance.isNew()) {
+            initVersion(instance);
+            sqlSessionTemplate.insert(statementId, instance);
+            tracked(instance);
         } else {
-            sqlSessionTemplate.update(namespace(Statement.UPDATE_BY_ID), instance);
+            int count = sqlSessionTemplate.update(statementId, instance);
+            if (versionProperty != null) {
+                checkVersion(instance, count);
+                incrementVersion(instance);
+            }
+            tracked(instance);
         }
+        written(Collections.singletonList(instance.getId()));
         return instance;
     }
 
@@ -61,9 +180,417 @@ public class SimpleMybatisRepository<T extends Persistable<?>, ID> implements My
     @Override
     @Transactional
     public <S extends T> List<S> saveAll(Iterable<S> entities) {
-        return Streamable.of(entities).stream()
-                .map(this::save)
-                .collect(Collectors.toList());
+        List<S> instances = new ArrayList<>();
+        entities.forEach(instances::add);
+        if (unitOfWork() != null) {
+            instances.forEach(this::save);
+        } else {
+            batchSave(instances);
+        }
+        return instances;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.data.mybatis.repository.MybatisRepository#batchSave(java.lang.Iterable)
+     */
+    @Override
+    @Transactional
+    public <S extends T> int[] batchSave(Iterable<S> entities) {
+        Assert.notNull(entities, "The given entities must not be null.");
+        List<S> instances = entities instanceof List ? (List<S>) entities : Streamable.of(entities).toList();
+        int[] updateCounts = new int[instances.size()];
+        if (instances.isEmpty()) {
+            return updateCounts;
+        }
+        evictAll(instances);
+        // Rows of the same statement are sent together, so that each flush executes as few JDBC batches as possible.
+        String insertId = namespace(Statement.INSERT);
+        String[] statementIds = new String[instances.size()];
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        groups.put(insertId, new ArrayList<>());
+        List<Integer> versioned = new ArrayList<>();
+        for (int i = 0; i < instances.size(); i++) {
+            S instance = instances.get(i);
+            Assert.notNull(instance, "The given instance must not be null.");
+            String statementId = saveStatementId(instance);
+            if (statementId != null) {
+                statementIds[i] = statementId;
+                groups.computeIfAbsent(statementId, key -> new ArrayList<>()).add(i);
+                if (instance.isNew()) {
+                    initVersion(instance);
+                } else if (versionProperty != null) {
+                    versioned.add(i);
+                }
+            }
+        }
+        if (options.isMultiRowInsert()) {
+            insertRows(instances, groups.remove(insertId), updateCounts);
+        }
+        List<Integer> order = new ArrayList<>(instances.size());
+        groups.values().forEach(order::addAll);
+        if (order.isEmpty()) {
+            written(ids(instances));
+            return updateCounts;
+        }
+        
+        executeBatch(instances, order, statementIds, updateCounts);
+        written(ids(instances));
+        // versions are only incremented when all rows are verified, the transaction is rolled back otherwise
+        for (Integer index : versioned) {
+            checkVersion(instances.get(index), updateCounts[index]);
+        }
+        for (Integer index : versioned) {
+            incrementVersion(instances.get(index));
+        }
+        if (changeTracker != null) {
+            changeTracker.snapshotAll(instances);
+        }
+        return updateCounts;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.data.mybatis.repository.MybatisRepository#upsert(java.lang.Object)
+     */
+    @Override
+    @Transactional
+    public <S extends T> S upsert(S instance) {
+        Assert.notNull(instance, "The given instance must not be null.");
+        Assert.notNull(instance.getId(), "The given instance must have an identifier.");
+        evict(instance);
+        initVersion(instance);
+        int count = sqlSessionTemplate.update(namespace(Statement.UPSERT), instance);
+        written(Collections.singletonList(instance.getId()));
+        if (versionProperty != null) {
+            checkVersion(instance, count);
+            incrementVersion(instance);
+        }
+        if (changeTracker != null) {
+            changeTracker.snapshot(instance);
+        }
+        return instance;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.data.mybatis.repository.MybatisRepository#upsertAll(java.lang.Iterable)
+     */
+    @Override
+    @Transactional
+    public <S extends T> int[] upsertAll(Iterable<S> entities) {
+        Assert.notNull(entities, "The given entities must not be null.");
+        List<S> instances = entities instanceof List ? (List<S>) entities : Streamable.of(entities).toList();
+        String[] statementIds = new String[instances.size()];
+        List<Integer> order = new ArrayList<>(instances.size());
+        String upsertId = namespace(Statement.UPSERT);
+        for (int i = 0; i < instances.size(); i++) {
+            S instance = instances.get(i);
+            Assert.isTrue(instance != null && instance.getId() != null, 
+                    "Only instances with identifier can be upserted: " + instance);
+            initVersion(instance);
+            statementIds[i] = upsertId;
+            order.add(i);
+        }
+        evictAll(instances);
+        int[] updateCounts = new int[instances.size()];
+        if (!order.isEmpty()) {
+            executeBatch(instances, order, statementIds, updateCounts);
+        }
+        written(ids(instances));
+        if (versionProperty != null) {
+            // versions are only incremented when all rows are verified, the transaction is rolled back otherwise
+            for (int i = 0; i < instances.size(); i++) {
+                checkVersion(instances.get(i), updateCounts[i]);
+            }
+            instances.forEach(this::incrementVersion);
+        }
+        if (changeTracker != null) {
+            changeTracker.snapshotAll(instances);
+        }
+        return updateCounts;
+    }
+    
+    private void executeBatch(List<?> instances, List<Integer> order, String[] statementIds, int[] updateCounts) {
+        executeBatch(sqlSessionTemplate, options.getBatchSize(), instances, order, statementIds, updateCounts);
+    }
+    
+    /**
+     * Execute the statements of the parameters in the given order with a batch executor bound to the current transaction, 
+     * the update counts are collected to the positions of the parameters.
+     */
+    static void executeBatch(SqlSessionTemplate sqlSessionTemplate, int batchSize, List<?> parameters, 
+            List<Integer> order, String[] statementIds, int[] updateCounts) {
+        SqlSession batchSession = sqlSessionTemplate.getSqlSessionFactory().openSession(ExecutorType.BATCH);
+        try {
+            int pending = 0;
+            int flushed = 0;
+            for (Integer index : order) {
+                // SqlSession#insert is a synonym of SqlSession#update, the statement decides what to execute
+                batchSession.update(statementIds[index], parameters.get(index));
+                if (++pending == batchSize) {
+                    flushed = collectUpdateCounts(batchSession.flushStatements(), order, flushed, updateCounts);
+                    pending = 0;
+                }
+            }
+            collectUpdateCounts(batchSession.flushStatements(), order, flushed, updateCounts);
+            batchSession.commit();
+        } catch (PersistenceException e) {
+            DataAccessException translated = sqlSessionTemplate.getPersistenceExceptionTranslator()
+                    .translateExceptionIfPossible(e);
+            throw translated != null ? translated : e;
+        } finally {
+            batchSession.close();
+        }
+        // the batch session bypasses the local cache of the current session
+        sqlSessionTemplate.clearCache();
+    }
+    
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.data.mybatis.repository.MybatisRepository#insertAll(java.lang.Iterable)
+     */
+    @Override
+    @Transactional
+    public <S extends T> int insertAll(Iterable<S> entities) {
+        Assert.notNull(entities, "The given entities must not be null.");
+        List<S> instances = entities instanceof List ? (List<S>) entities : Streamable.of(entities).toList();
+        List<Integer> order = new ArrayList<>(instances.size());
+        for (int i = 0; i < instances.size(); i++) {
+            S instance = instances.get(i);
+            Assert.isTrue(instance != null && instance.isNew() && instance.getId() == null, 
+                    "Only new instances without identifier can be inserted: " + instance);
+            initVersion(instance);
+            order.add(i);
+        }
+        int[] updateCounts = insertRows(instances, order, new int[instances.size()]);
+        written(ids(instances));
+        if (changeTracker != null) {
+            changeTracker.snapshotAll(instances);
+        }
+        int total = 0;
+        for (int count : updateCounts) {
+            total += count;
+        }
+        return total;
+    }
+    
+    /**
+     * Insert the instances at the given positions with multi-row {@code INSERT} statements, 
+     * as many rows as the bind parameter limit of the dialect allows are sent in one statement.
+     */
+    private <S extends T> int[] insertRows(List<S> instances, List<Integer> order, int[] updateCounts) {
+        int columnCount = Math.max(1, tableInfo.getInsertableColumns().size());
+        int chunkSize = Math.max(1, Math.min(options.getBatchSize(), Statements.maxBindParameters(dialect) / columnCount));
+        String statementId = namespace(Statement.INSERT_ALL);
+        for (int from = 0; from < order.size(); from += chunkSize) {
+            List<Integer> positions = order.subList(from, Math.min(from + chunkSize, order.size()));
+            List<S> rows = new ArrayList<>(positions.size());
+            for (Integer index : positions) {
+                rows.add(instances.get(index));
+            }
+            int count = sqlSessionTemplate.insert(statementId, rows);
+            // drivers only report the total row count of a multi-row statement
+            int rowCount = count == rows.size() ? 1 : java.sql.Statement.SUCCESS_NO_INFO;
+            for (Integer index : positions) {
+                updateCounts[index] = rowCount;
+            }
+        }
+        return updateCounts;
+    }
+    
+    /**
+     * Resolve the statement to save the instance with.
+     * @return statement id, or {@literal null} if the instance is tracked and no column changed.
+     */
+    private String saveStatementId(T instance) {
+        if (instance.isNew()) {
+            return namespace(instance.getId() != null ? Statement.INSERT_WITH_ID : Statement.INSERT);
+        }
+        return changeTracker != null ? changeTracker.updateStatementId(instance) : namespace(Statement.UPDATE_BY_ID);
+    }
+    
+    /**
+     * Get the unit of work of the current transaction.
+     * @return the unit of work, or {@literal null} if it is disabled or there is no transaction
+     */
+    private UnitOfWork unitOfWork() {
+        return options.isUnitOfWork() ? UnitOfWork.bind(sqlSessionTemplate, options.getBatchSize()) : null;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.data.mybatis.repository.MybatisRepository#flush()
+     */
+    @Override
+    public void flush() {
+        UnitOfWork.flushCurrent(sqlSessionTemplate.getConfiguration());
+    }
+    
+    /**
+     * Set the initial version of a new instance if the version is not set.
+     */
+    private void initVersion(T instance) {
+        if (versionProperty == null) {
+            return;
+        }
+        MetaObject metaObject = sqlSessionTemplate.getConfiguration().newMetaObject(instance);
+        if (metaObject.getValue(versionProperty) == null) {
+            metaObject.setValue(versionProperty, versionValue(metaObject.getSetterType(versionProperty), 0L));
+        }
+    }
+    
+    private void incrementVersion(T instance) {
+        MetaObject metaObject = sqlSessionTemplate.getConfiguration().newMetaObject(instance);
+        Number version = (Number) metaObject.getValue(versionProperty);
+        long next = version == null ? 0L : version.longValue() + 1;
+        metaObject.setValue(versionProperty, versionValue(metaObject.getSetterType(versionProperty), next));
+    }
+    
+    private static Object versionValue(Class<?> versionType, long value) {
+        if (Integer.class.equals(versionType) || int.class.equals(versionType)) {
+            return (int) value;
+        }
+        if (Short.class.equals(versionType) || short.class.equals(versionType)) {
+            return (short) value;
+        }
+        return value;
+    }
+    
+    /**
+     * Throw {@link OptimisticLockingFailureException} if no row matched the id and version of the instance.
+     * Drivers that do not report update counts of batches ({@link java.sql.Statement#SUCCESS_NO_INFO}) are trusted.
+     */
+    private void checkVersion(T instance, int updateCount) {
+        if (updateCount == 0) {
+            throw new OptimisticLockingFailureException(String.format(
+                    "Row of %s with id %s was updated or deleted by another transaction.", 
+                    instance.getClass().getName(), instance.getId()));
+        }
+    }
+    
+    /**
+     * Evict the entity from the second-level cache if it is enabled.
+     */
+    private void evict(T instance) {
+        if (entityCache != null) {
+            entityCache.evict(instance.getId());
+        }
+    }
+    
+    private void evictAll(Iterable<? extends T> instances) {
+        if (entityCache != null) {
+            for (T instance : instances) {
+                entityCache.evict(instance.getId());
+            }
+        }
+    }
+    
+    /**
+     * Log the change of the written entities to other nodes, and reload the reference data 
+     * after the current transaction if the repository is of reference data.
+     * @param ids ids of the written entities, {@literal null} if any entity may be written
+     */
+    private void written(Collection<?> ids) {
+        if (ids != null && ids.contains(null)) {
+            // entities without id are not written yet, they are logged once their inserts are flushed
+            ids = ids.stream().filter(Objects::nonNull).collect(Collectors.toList());
+            if (ids.isEmpty()) {
+                return;
+            }
+        }
+        if (changeLog != null) {
+            changeLog.append(tableName, ids);
+        }
+        if (referenceData != null) {
+            referenceData.written();
+        }
+    }
+    
+    private static List<Object> ids(List<? extends Persistable<?>> instances) {
+        List<Object> ids = new ArrayList<>(instances.size());
+        for (Persistable<?> instance : instances) {
+            ids.add(instance.getId());
+        }
+        return ids;
+    }
+    
+    /**
+     * Apply the change of an entity made by another node.
+     * @param id id of the entity, {@literal null} if any entity may be changed
+     */
+    private void changed(String id) {
+        if (entityCache != null) {
+            if (id == null) {
+                entityCache.invalidateAll();
+            } else {
+                entityCache.invalidate(tableInfo.getIdType() == null ? id 
+                        : DefaultConversionService.getSharedInstance().convert(id, tableInfo.getIdType()));
+            }
+        }
+        if (referenceData != null) {
+            referenceData.reload();
+        }
+    }
+    
+    private boolean isReferenceDataReadable() {
+        return referenceData != null && referenceData.isReadable();
+    }
+    
+    private <R> R tracked(R result) {
+        if (changeTracker != null && result != null) {
+            if (result instanceof Iterable) {
+                changeTracker.snapshotAll((Iterable<?>) result);
+            } else {
+                changeTracker.snapshot(result);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Split the distinct ids into chunks for {@code IN} lists, each chunk is padded up to a bucket size
+     * by repeating its last id, so that the number of distinct statements stays small.
+     */
+    private List<List<Object>> chunkIds(Iterable<?> ids) {
+        Set<Object> distinctIds = new LinkedHashSet<>();
+        ids.forEach(distinctIds::add);
+        int[] buckets = options.getInClauseBuckets();
+        int chunkSize = Math.min(buckets[buckets.length - 1], Statements.maxBindParameters(dialect));
+        List<List<Object>> chunks = new ArrayList<>(distinctIds.size() / chunkSize + 1);
+        List<Object> chunk = null;
+        for (Object id : distinctIds) {
+            if (chunk == null || chunk.size() == chunkSize) {
+                chunk = new ArrayList<>(chunkSize);
+                chunks.add(chunk);
+            }
+            chunk.add(id);
+        }
+        for (List<Object> idChunk : chunks) {
+            int size = idChunk.size();
+            int paddedSize = size;
+            for (int bucket : buckets) {
+                if (bucket >= size) {
+                    paddedSize = Math.min(bucket, chunkSize);
+                    break;
+                }
+            }
+            Object lastId = idChunk.get(size - 1);
+            for (int i = size; i < paddedSize; i++) {
+                idChunk.add(lastId);
+            }
+        }
+        return chunks;
+    }
+    
+    private static int collectUpdateCounts(List<BatchResult> results, List<Integer> order, int offset, int[] updateCounts) {
+        int position = offset;
+        for (BatchResult result : results) {
+            for (int count : result.getUpdateCounts()) {
+                updateCounts[order.get(position++)] = count;
+            }
+        }
+        return position;
     }
 
     /*
@@ -71,11 +598,27 @@ public class SimpleMybatisRepository<T extends Persistable<?>, ID> implements My
      * @see org.springframework.data.repository.CrudRepository#findOne(java.io.Serializable)
      */
     @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<T> findById(ID id) {
         if (id == null) {
             return Optional.empty();
         }
-        return Optional.ofNullable(sqlSessionTemplate.selectOne(namespace(Statement.FIND_BY_ID), id));
+        if (isReferenceDataReadable()) {
+            return Optional.ofNullable(referenceData.get(id));
+        }
+        if (entityCache == null) {
+            return Optional.ofNullable(tracked(selectById(id)));
+        }
+        @SuppressWarnings("unchecked")
+        T entity = (T) entityCache.get(id);
+        if (entity == null) {
+            long stamp = entityCache.stamp();
+            entity = selectById(id);
+            if (entity != null) {
+                entityCache.put(id, entity, stamp);
+            }
+        }
+        return Optional.ofNullable(tracked(entity));
     }
 
     /*
@@ -87,6 +630,9 @@ public class SimpleMybatisRepository<T extends Persistable<?>, ID> implements My
         if (id == null) {
             return false;
         }
+        if (isReferenceDataReadable()) {
+            return referenceData.get(id) != null;
+        }
         long count = sqlSessionTemplate.selectOne(namespace(Statement.COUNT_BY_ID), id);
         return count > 0;
     }
@@ -97,6 +643,9 @@ public class SimpleMybatisRepository<T extends Persistable<?>, ID> implements My
      */
     @Override
     public long count() {
+        if (isReferenceDataReadable()) {
+            return referenceData.count();
+        }
         return sqlSessionTemplate.selectOne(namespace(Statement.COUNT_ALL));
     }
 
@@ -106,7 +655,10 @@ public class SimpleMybatisRepository<T extends Persistable<?>, ID> implements My
      */
     @Override
     public List<T> findAll() {
-        return sqlSessionTemplate.selectList(namespace(Statement.FIND_ALL));
+        if (isReferenceDataReadable()) {
+            return referenceData.getAll();
+        }
+        return tracked(sqlSessionTemplate.selectList(namespace(Statement.FIND_ALL)));
     }
 
     /*
@@ -118,7 +670,64 @@ public class SimpleMybatisRepository<T extends Persistable<?>, ID> implements My
         if (ids == null || !ids.iterator().hasNext()) {
             return Collections.emptyList();
         }
-        return sqlSessionTemplate.selectList(namespace(Statement.FIND_BY_IDS), ids);
+        if (isReferenceDataReadable()) {
+            Set<Object> distinctIds = new LinkedHashSet<>();
+            ids.forEach(distinctIds::add);
+            List<T> result = new ArrayList<>(distinctIds.size());
+            for (Object id : distinctIds) {
+                T entity = referenceData.get(id);
+                if (entity != null) {
+                    result.add(entity);
+                }
+            }
+            return result;
+        }
+        if (entityCache == null) {
+            return tracked(selectByIds(ids));
+        }
+        // only the missing ids are queried
+        Set<Object> missingIds = new LinkedHashSet<>();
+        ids.forEach(missingIds::add);
+        List<T> result = new ArrayList<>(missingIds.size());
+        Iterator<Object> iterator = missingIds.iterator();
+        while (iterator.hasNext()) {
+            @SuppressWarnings("unchecked")
+            T entity = (T) entityCache.get(iterator.next());
+            if (entity != null) {
+                result.add(entity);
+                iterator.remove();
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            long stamp = entityCache.stamp();
+            List<T> entities = selectByIds(missingIds);
+            for (T entity : entities) {
+                entityCache.put(entity.getId(), entity, stamp);
+            }
+            result.addAll(entities);
+        }
+        return tracked(result);
+    }
+    
+    private T selectById(Object id) {
+        // findById only joins the transaction of the caller, which may read its own writes or a snapshot of its own 
+        // that are not visible to the batch
+        if (findByIdLoader != null && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return findByIdLoader.load(id);
+        }
+        return sqlSessionTemplate.selectOne(namespace(Statement.FIND_BY_ID), id);
+    }
+    
+    private List<T> selectByIds(Iterable<?> ids) {
+        List<List<Object>> chunks = chunkIds(ids);
+        if (chunks.size() == 1) {
+            return sqlSessionTemplate.selectList(namespace(Statement.FIND_BY_IDS), chunks.get(0));
+        }
+        List<T> result = new ArrayList<>();
+        for (List<Object> chunk : chunks) {
+            result.addAll(sqlSessionTemplate.selectList(namespace(Statement.FIND_BY_IDS), chunk));
+        }
+        return result;
     }
 
     /*
@@ -127,16 +736,71 @@ public class SimpleMybatisRepository<T extends Persistable<?>, ID> implements My
      */
     @Override
     public List<T> findAll(Sort sort) {
-        return sqlSessionTemplate.selectList(namespace(Statement.FIND_ALL), sort);
+        return tracked(sqlSessionTemplate.selectList(namespace(Statement.FIND_ALL), sort));
     }
 
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.data.mybatis.repository.MybatisRepository#findSlice(org.springframework.data.domain.Pageable)
+     */
+    @Override
+    public Slice<T> findSlice(Pageable pageable) {
+        Assert.notNull(pageable, "The given pageable must not be null.");
+        Map<String, Object> params = new HashMap<>();
+        params.put("pageable", pageable);
+        params.put(PageableInteceptor.PARAM_KEY_SLICE, PageableInteceptor.SliceMarker.INSTANCE);
+        return tracked(sqlSessionTemplate.<Slice<T>>selectOne(namespace(Statement.FIND_ALL), params));
+    }
+    
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.data.mybatis.repository.MybatisRepository#findAll(org.springframework.data.mybatis.domain.KeysetPosition, int, org.springframework.data.domain.Sort)
+     */
+    @Override
+    public Window<T> findAll(KeysetPosition position, int size, Sort sort) {
+        Assert.notNull(position, "The given position must not be null.");
+        Map<String, Object> params = new HashMap<>();
+        params.put("position", position);
+        params.put("pageable", PageRequest.of(0, size, sort == null ? Sort.unsorted() : sort));
+        return tracked(sqlSessionTemplate.<Window<T>>selectOne(namespace(Statement.FIND_ALL), params));
+    }
+    
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.data.mybatis.repository.MybatisRepository#streamAll()
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Stream<T> streamAll() {
+        return streamAll(Sort.unsorted());
+    }
+    
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.data.mybatis.repository.MybatisRepository#streamAll(org.springframework.data.domain.Sort)
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Stream<T> streamAll(Sort sort) {
+        Map<String, Object> params = Collections.singletonMap(Statement.PARAM_ORDER_BY, Statements.orderBy(tableInfo, dialect, sort));
+        Cursor<T> cursor = sqlSessionTemplate.selectCursor(namespace(Statement.STREAM_ALL), params);
+        Stream<T> stream = StreamSupport.stream(cursor.spliterator(), false).onClose(() -> {
+            try {
+                cursor.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return changeTracker != null ? stream.peek(changeTracker::snapshot) : stream;
+    }
+    
     /*
      * (non-Javadoc)
      * @see org.springframework.data.repository.PagingAndSortingRepository#findAll(org.springframework.data.domain.Pageable pageable)
      */
     @Override
     public Page<T> findAll(Pageable pageable) {
-        return sqlSessionTemplate.selectOne(namespace(Statement.FIND_ALL), pageable);
+        return tracked(sqlSessionTemplate.<Page<T>>selectOne(namespace(Statement.FIND_ALL), pageable));
     }
     
     /*
@@ -146,7 +810,16 @@ public class SimpleMybatisRepository<T extends Persistable<?>, ID> implements My
     @Override
     @Transactional
     public void deleteById(Object id) {
-        sqlSessionTemplate.delete(namespace(Statement.DELETE_BY_ID), id);
+        if (entityCache != null) {
+            entityCache.evict(id);
+        }
+        UnitOfWork unitOfWork = unitOfWork();
+        if (unitOfWork != null) {
+            unitOfWork.write(UnitOfWork.Kind.DELETE, namespace, namespace(Statement.DELETE_BY_ID), id, id, null);
+        } else {
+            sqlSessionTemplate.delete(namespace(Statement.DELETE_BY_ID), id);
+        }
+        written(Collections.singletonList(id));
     }
 
     /*
@@ -156,7 +829,21 @@ public class SimpleMybatisRepository<T extends Persistable<?>, ID> implements My
     @Override
     @Transactional
     public void delete(T instance) {
-        if (instance != null) {
+        if (instance == null) {
+            return;
+        }
+        UnitOfWork unitOfWork = versionProperty != null ? unitOfWork() : null;
+        if (versionProperty != null) {
+            evict(instance);
+        }
+        if (unitOfWork != null) {
+            unitOfWork.write(UnitOfWork.Kind.DELETE, namespace, namespace(Statement.DELETE_BY_ID_AND_VERSION), 
+                    instance, instance.getId(), count -> checkVersion(instance, count));
+            written(Collections.singletonList(instance.getId()));
+        } else if (versionProperty != null) {
+            checkVersion(instance, sqlSessionTemplate.delete(namespace(Statement.DELETE_BY_ID_AND_VERSION), instance));
+            written(Collections.singletonList(instance.getId()));
+        } else {
             deleteById(instance.getId());
         }
     }
@@ -168,10 +855,29 @@ public class SimpleMybatisRepository<T extends Persistable<?>, ID> implements My
     @Override
     @Transactional
     public void deleteAllById(Iterable<? extends ID> ids) {
-        if (ids == null || !ids.iterator().hasNext()) {
+        if (ids != null) {
+            deleteIds(Streamable.of(ids).toList());
+        }
+    }
+
+    private void deleteIds(List<?> ids) {
+        if (ids.isEmpty()) {
             return;
         }
-        sqlSessionTemplate.delete(namespace(Statement.DELETE_BY_IDS), ids);
+        if (entityCache != null) {
+            ids.forEach(entityCache::evict);
+        }
+        UnitOfWork unitOfWork = unitOfWork();
+        if (unitOfWork != null) {
+            // deferred deletes are coalesced per entity, they are sent in one JDBC batch of deleteById
+            String deleteId = namespace(Statement.DELETE_BY_ID);
+            ids.forEach(id -> unitOfWork.write(UnitOfWork.Kind.DELETE, namespace, deleteId, id, id, null));
+        } else {
+            for (List<Object> chunk : chunkIds(ids)) {
+                sqlSessionTemplate.delete(namespace(Statement.DELETE_BY_IDS), chunk);
+            }
+        }
+        written(ids);
     }
 
     /*
@@ -181,18 +887,52 @@ public class SimpleMybatisRepository<T extends Persistable<?>, ID> implements My
     @Override
     @Transactional
     public void deleteAll(Iterable<? extends T> entities) {
-        if (entities != null) {
-            List<Object> ids = Streamable.of(entities).stream()
+        if (entities == null) {
+            return;
+        }
+        if (versionProperty != null && unitOfWork() != null) {
+            entities.forEach(this::delete);
+        } else if (versionProperty != null) {
+            deleteAllVersioned(Streamable.of(entities).toList());
+        } else {
+            deleteIds(Streamable.of(entities).stream()
                 .map(entity -> entity.getId())
-                .collect(Collectors.toList());
-            sqlSessionTemplate.delete(namespace(Statement.DELETE_BY_IDS), ids);
+                .collect(Collectors.toList()));
+        }
+    }
+
+    private void deleteAllVersioned(List<? extends T> instances) {
+        evictAll(instances);
+        String[] statementIds = new String[instances.size()];
+        List<Integer> order = new ArrayList<>(instances.size());
+        String deleteId = namespace(Statement.DELETE_BY_ID_AND_VERSION);
+        for (int i = 0; i < instances.size(); i++) {
+            statementIds[i] = deleteId;
+            order.add(i);
+        }
+        int[] updateCounts = new int[instances.size()];
+        if (!order.isEmpty()) {
+            executeBatch(instances, order, statementIds, updateCounts);
+        }
+        written(ids(instances));
+        for (int i = 0; i < instances.size(); i++) {
+            checkVersion(instances.get(i), updateCounts[i]);
         }
     }
 
     @Override
     @Transactional
     public void deleteAll() {
-        sqlSessionTemplate.delete(namespace(Statement.DELETE_ALL));
+        if (entityCache != null) {
+            entityCache.evictAll();
+        }
+        UnitOfWork unitOfWork = unitOfWork();
+        if (unitOfWork != null) {
+            unitOfWork.writeAll(namespace, namespace(Statement.DELETE_ALL), null);
+        } else {
+            sqlSessionTemplate.delete(namespace(Statement.DELETE_ALL));
+        }
+        written(null);
     }
 
     @Override
@@ -0,0 +1,297 @@
+package org.springframework.data.mybatis.repository.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.session.Configuration;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.data.mybatis.statement.Statement;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Writes of {@link SimpleMybatisRepository} instances deferred to the end of the current transaction.
+ * <p>
+ * Writes of the same entity are coalesced, and all pending writes are flushed with JDBC batches before
+ * the transaction commits, or before any other statement is executed in the transaction, see {@link UnitOfWorkInterceptor}.
+ * Writes are flushed in the order they were queued, so that unique keys and foreign keys are checked as if they were
+ * executed at once, adjacent writes of the same statement are sent in one JDBC batch.
+ *
+ * @see MybatisRepositoryOptions#setUnitOfWork(boolean)
+ */
+class UnitOfWork {
+
+    enum Kind {
+        INSERT, UPDATE, DELETE
+    }
+
+    /**
+     * Order of the synchronization releasing the JDBC connection of the transaction, the value of
+     * {@code DataSourceUtils.CONNECTION_SYNCHRONIZATION_ORDER}, spring-jdbc is not a compile dependency.
+     */
+    private static final int CONNECTION_SYNCHRONIZATION_ORDER = 1000;
+
+    /**
+     * Order of the synchronization committing the mybatis session of the transaction, mybatis-spring orders
+     * its synchronization right before the connection synchronization.
+     */
+    private static final int SESSION_SYNCHRONIZATION_ORDER = CONNECTION_SYNCHRONIZATION_ORDER - 1;
+
+    /**
+     * Order of the unit of work synchronization, the writes are flushed before the mybatis session is committed.
+     */
+    private static final int SYNCHRONIZATION_ORDER = SESSION_SYNCHRONIZATION_ORDER - 1;
+
+    private static final class Write {
+
+        private final Kind kind;
+        private final String namespace;
+        private final Object parameter;
+        private final IntConsumer callback;
+        private String statementId;
+        private boolean cancelled;
+
+        Write(Kind kind, String namespace, String statementId, Object parameter, IntConsumer callback) {
+            this.kind = kind;
+            this.namespace = namespace;
+            this.statementId = statementId;
+            this.parameter = parameter;
+            this.callback = callback;
+        }
+
+    }
+
+    /**
+     * Key of the unit of work resource bound to the transaction, one unit of work per mybatis configuration.
+     */
+    private static final class ResourceKey {
+
+        private final Configuration config;
+
+        ResourceKey(Configuration config) {
+            this.config = config;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ResourceKey && ((ResourceKey) obj).config == config;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(config);
+        }
+
+    }
+
+    private final SqlSessionTemplate sqlSessionTemplate;
+    private final int batchSize;
+    private final List<Write> writes = new ArrayList<>();
+    private final Map<List<Object>, Write> writesById = new HashMap<>();
+    private final Map<Object, Write> writesByInstance = new IdentityHashMap<>();
+    private boolean flushing;
+
+    private UnitOfWork(SqlSessionTemplate sqlSessionTemplate, int batchSize) {
+        this.sqlSessionTemplate = sqlSessionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Get the unit of work of the current transaction, a new one is bound to the transaction if not exists.
+     * @param sqlSessionTemplate template to flush the writes with
+     * @param batchSize JDBC batch size
+     * @return the unit of work, or {@literal null} if transaction synchronization is not active
+     */
+    static UnitOfWork bind(SqlSessionTemplate sqlSessionTemplate, int batchSize) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        ResourceKey key = new ResourceKey(sqlSessionTemplate.getConfiguration());
+        UnitOfWork unitOfWork = (UnitOfWork) TransactionSynchronizationManager.getResource(key);
+        if (unitOfWork == null) {
+            unitOfWork = new UnitOfWork(sqlSessionTemplate, batchSize);
+            TransactionSynchronizationManager.bindResource(key, unitOfWork);
+            TransactionSynchronizationManager.registerSynchronization(new UnitOfWorkSynchronization(key, unitOfWork));
+        }
+        return unitOfWork;
+    }
+
+    /**
+     * Flush the pending writes of the current transaction if any.
+     * @param config mybatis configuration
+     */
+    static void flushCurrent(Configuration config) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            UnitOfWork unitOfWork = (UnitOfWork) TransactionSynchronizationManager.getResource(new ResourceKey(config));
+            if (unitOfWork != null) {
+                unitOfWork.flush();
+            }
+        }
+    }
+
+    /**
+     * Queue a write, it is coalesced with the pending write of the same entity if possible.
+     * @param kind kind of the write
+     * @param namespace namespace of the repository
+     * @param statementId statement to execute
+     * @param parameter entity or id passed to the statement
+     * @param id id of the entity, {@literal null} if it will be generated
+     * @param callback called with the update count when the write is flushed, may be {@literal null}
+     */
+    void write(Kind kind, String namespace, String statementId, Object parameter, Object id, IntConsumer callback) {
+        Write pending = id != null ? writesById.get(Arrays.asList(namespace, id)) : null;
+        if (pending == null) {
+            pending = writesByInstance.get(parameter);
+        }
+        if (pending != null && !pending.cancelled) {
+            boolean sameInstance = pending.parameter == parameter;
+            switch (kind) {
+            case INSERT:
+                if (pending.kind == Kind.INSERT && sameInstance) {
+                    // the state of the entity is read when the insert is flushed
+                    return;
+                }
+                break;
+            case UPDATE:
+                if (pending.kind == Kind.INSERT && sameInstance) {
+                    return;
+                }
+                if (pending.kind == Kind.UPDATE && sameInstance) {
+                    if (!pending.statementId.equals(statementId)) {
+                        // the changes of both writes are not known anymore, update all columns
+                        pending.statementId = namespace + Statement.DOT + Statement.UPDATE_BY_ID;
+                    }
+                    return;
+                }
+                break;
+            case DELETE:
+                if (pending.kind == Kind.DELETE) {
+                    return;
+                }
+                if (pending.kind == Kind.INSERT) {
+                    // the row never reaches the database
+                    pending.cancelled = true;
+                    return;
+                }
+                pending.cancelled = true;
+                pending = null;
+                break;
+            default:
+                break;
+            }
+            if (pending != null) {
+                // the writes can not be coalesced, flush the pending one to keep them in order
+                flush();
+            }
+        }
+        Write write = new Write(kind, namespace, statementId, parameter, callback);
+        writes.add(write);
+        if (id != null) {
+            writesById.put(Arrays.asList(namespace, id), write);
+        }
+        if (parameter != id) {
+            writesByInstance.put(parameter, write);
+        }
+    }
+
+    /**
+     * Queue a write of all rows of a table, later writes of the table are not coalesced with the writes before it.
+     * @param namespace namespace of the repository
+     * @param statementId statement to execute, without parameter
+     * @param callback called with the update count when the write is flushed, may be {@literal null}
+     */
+    void writeAll(String namespace, String statementId, IntConsumer callback) {
+        writesById.keySet().removeIf(key -> key.get(0).equals(namespace));
+        writesByInstance.values().removeIf(write -> write.namespace.equals(namespace));
+        writes.add(new Write(Kind.DELETE, namespace, statementId, null, callback));
+    }
+
+    /**
+     * Execute all pending writes with JDBC batches.
+     */
+    void flush() {
+        if (flushing || writes.isEmpty()) {
+            return;
+        }
+        flushing = true;
+        try {
+            // the batch executor starts a new JDBC batch whenever the statement changes
+            List<Write> pending = writes.stream()
+                    .filter(write -> !write.cancelled)
+                    .collect(Collectors.toList());
+            clear();
+            if (pending.isEmpty()) {
+                return;
+            }
+            String[] statementIds = new String[pending.size()];
+            List<Object> parameters = new ArrayList<>(pending.size());
+            List<Integer> order = new ArrayList<>(pending.size());
+            for (int i = 0; i < pending.size(); i++) {
+                statementIds[i] = pending.get(i).statementId;
+                parameters.add(pending.get(i).parameter);
+                order.add(i);
+            }
+            int[] updateCounts = new int[pending.size()];
+            SimpleMybatisRepository.executeBatch(sqlSessionTemplate, batchSize, parameters, order, statementIds, updateCounts);
+            for (int i = 0; i < pending.size(); i++) {
+                IntConsumer callback = pending.get(i).callback;
+                if (callback != null) {
+                    callback.accept(updateCounts[i]);
+                }
+            }
+        } finally {
+            flushing = false;
+        }
+    }
+
+    private void clear() {
+        writes.clear();
+        writesById.clear();
+        writesByInstance.clear();
+    }
+
+    private static final class UnitOfWorkSynchronization implements TransactionSynchronization {
+
+        private final ResourceKey key;
+        private final UnitOfWork unitOfWork;
+
+        UnitOfWorkSynchronization(ResourceKey key, UnitOfWork unitOfWork) {
+            this.key = key;
+            this.unitOfWork = unitOfWork;
+        }
+
+        @Override
+        public int getOrder() {
+            return SYNCHRONIZATION_ORDER;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(key);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(key, unitOfWork);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            unitOfWork.flush();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            unitOfWork.clear();
+            TransactionSynchronizationManager.unbindResourceIfPossible(key);
+        }
+
+    }
+
+}
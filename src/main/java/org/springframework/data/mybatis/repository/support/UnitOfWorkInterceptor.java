@@ -0,0 +1,38 @@
+package org.springframework.data.mybatis.repository.support;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * Flushes the pending writes of the current transaction before any statement is executed,
+ * so that queries and statements of mappers see the writes deferred by the unit of work.
+ *
+ * @see MybatisRepositoryOptions#setUnitOfWork(boolean)
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "query", args = {
+        MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class
+    }),
+    @Signature(type = Executor.class, method = "queryCursor", args = {
+        MappedStatement.class, Object.class, RowBounds.class
+    }),
+    @Signature(type = Executor.class, method = "update", args = {
+        MappedStatement.class, Object.class
+    })
+})
+public class UnitOfWorkInterceptor implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        UnitOfWork.flushCurrent(ms.getConfiguration());
+        return invocation.proceed();
+    }
+
+}
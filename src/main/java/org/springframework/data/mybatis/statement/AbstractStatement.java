@@ -1,16 +1,28 @@
 package org.springframework.data.mybatis.statement;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
 import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
 import org.apache.ibatis.scripting.xmltags.TextSqlNode;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.mybatis.repository.MybatisRepository;
@@ -19,6 +31,7 @@ import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.SqlIdentifier;
 import org.springframework.data.relational.core.sql.render.RenderContext;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
 /**
  * Base class for generate a {@link MappedStatement}
@@ -29,6 +42,31 @@ public abstract class AbstractStatement implements Statement {
     
     private static final Pattern NON_VISIBLE_CHAR_PATTERN = Pattern.compile("\\W");
     
+    private static final Map<Class<?>, JdbcType> JDBC_TYPES = new HashMap<>();
+    
+    static {
+        JDBC_TYPES.put(String.class, JdbcType.VARCHAR);
+        JDBC_TYPES.put(Boolean.class, JdbcType.BOOLEAN);
+        JDBC_TYPES.put(Byte.class, JdbcType.TINYINT);
+        JDBC_TYPES.put(Short.class, JdbcType.SMALLINT);
+        JDBC_TYPES.put(Integer.class, JdbcType.INTEGER);
+        JDBC_TYPES.put(Long.class, JdbcType.BIGINT);
+        JDBC_TYPES.put(Float.class, JdbcType.REAL);
+        JDBC_TYPES.put(Double.class, JdbcType.DOUBLE);
+        JDBC_TYPES.put(BigInteger.class, JdbcType.BIGINT);
+        JDBC_TYPES.put(BigDecimal.class, JdbcType.DECIMAL);
+        JDBC_TYPES.put(byte[].class, JdbcType.VARBINARY);
+        JDBC_TYPES.put(java.util.Date.class, JdbcType.TIMESTAMP);
+        JDBC_TYPES.put(java.sql.Date.class, JdbcType.DATE);
+        JDBC_TYPES.put(java.sql.Time.class, JdbcType.TIME);
+        JDBC_TYPES.put(java.sql.Timestamp.class, JdbcType.TIMESTAMP);
+        JDBC_TYPES.put(LocalDate.class, JdbcType.DATE);
+        JDBC_TYPES.put(LocalTime.class, JdbcType.TIME);
+        JDBC_TYPES.put(LocalDateTime.class, JdbcType.TIMESTAMP);
+        JDBC_TYPES.put(Instant.class, JdbcType.TIMESTAMP);
+        JDBC_TYPES.put(OffsetDateTime.class, JdbcType.TIMESTAMP_WITH_TIMEZONE);
+    }
+    
     private final String name;
     private final SqlCommandType type;
     
@@ -68,22 +106,37 @@ public abstract class AbstractStatement implements Statement {
         if (config.hasStatement(id, false)) {
             return config.getMappedStatement(id);
         }
-        String sqlScript = renderSql(renderContext, tableInfo);
+        MappedStatement ms = build(config, namespace, id, renderSql(renderContext, tableInfo), tableInfo);
+        config.addMappedStatement(ms);
+        return ms;
+    }
+    
+    /**
+     * Build a {@link MappedStatement} of the rendered sql, without adding it to mybatis configuration.
+     */
+    MappedStatement build(Configuration config, String namespace, String id, String sqlScript, TableInfo tableInfo) {
         if (logger.isDebugEnabled()) {
             logger.debug("Rendered SQL: {}", sqlScript);
         }
-        SqlSource sqlSource = createSqlSource(config, sqlScript);
+        SqlSource sqlSource = createSqlSource(config, sqlScript, tableInfo);
         MappedStatement.Builder builder = new MappedStatement.Builder(config, id, sqlSource, this.getType());
         configureBuilder(config, namespace, builder);
-        MappedStatement ms = builder.build();
-        config.addMappedStatement(ms);
-        return ms;
+        return builder.build();
     }
     
     protected String statementId(String namespace) {
         return new StringBuilder(namespace).append(DOT).append(this.getName()).toString();
     }
     
+    /**
+     * Get the key of a statement generated at runtime in {@link StatementCache}, statements of equal keys 
+     * must render the same sql. Statements whose sql is expensive to render should override it.
+     * @return the key, by default the statement id and the rendered sql
+     */
+    protected Object cacheKey() {
+        return Arrays.asList(statementId(null), renderSql(null, null));
+    }
+    
     /**
      * Create a sql statement.
      * @param renderContext sql render contenxt
@@ -92,8 +145,30 @@ public abstract class AbstractStatement implements Statement {
      */
     public abstract String renderSql(RenderContext renderContext, TableInfo tableInfo);
     
+    /**
+     * Create the {@link SqlSource} of the rendered sql of a table.
+     * @param config mybatis configuration
+     * @param sqlScript the rendered sql
+     * @param tableInfo table info, {@literal null} for statements generated at runtime
+     * @return {@link SqlSource}
+     */
+    protected SqlSource createSqlSource(Configuration config, String sqlScript, TableInfo tableInfo) {
+        return createSqlSource(config, sqlScript);
+    }
+    
+    /**
+     * Create the {@link SqlSource} of the rendered sql. The parameter mappings of a sql without {@code ${}} tokens 
+     * are parsed once here, so that executing the statement does not parse the sql again.
+     * @param config mybatis configuration
+     * @param sqlScript the rendered sql
+     * @return {@link SqlSource}
+     */
     protected SqlSource createSqlSource(Configuration config, String sqlScript) {
-        return new DynamicSqlSource(config, new TextSqlNode(sqlScript));
+        TextSqlNode sqlNode = new TextSqlNode(sqlScript);
+        if (sqlNode.isDynamic()) {
+            return new DynamicSqlSource(config, sqlNode);
+        }
+        return new RawSqlSource(config, sqlScript, Object.class);
     }
     
     protected void configureBuilder(Configuration config, String namespace, MappedStatement.Builder builder) {
@@ -107,13 +182,60 @@ public abstract class AbstractStatement implements Statement {
     }
     
     protected BindMarker getBindMarker(SqlIdentifier columnName) {
-        String referenceName = columnName.getReference();
-        String paramName = NON_VISIBLE_CHAR_PATTERN.matcher(referenceName).replaceAll("");
-        return SQL.bindMarker(Statement.marker(paramName));
+        return SQL.bindMarker(Statement.marker(paramName(columnName)));
+    }
+    
+    /**
+     * Create a bind marker of a column, typed with the type of the property mapped to the column.
+     * @param tableInfo table info
+     * @param columnName column name
+     * @return {@link BindMarker}
+     */
+    protected BindMarker getBindMarker(TableInfo tableInfo, SqlIdentifier columnName) {
+        return SQL.bindMarker(typedMarker(paramName(columnName), tableInfo.getColumnType(columnName)));
+    }
+    
+    private static String paramName(SqlIdentifier columnName) {
+        return NON_VISIBLE_CHAR_PATTERN.matcher(columnName.getReference()).replaceAll("");
+    }
+    
+    protected BindMarker versionBindMarker(TableInfo tableInfo) {
+        SqlIdentifier versionColumnName = tableInfo.getVersionColumnName();
+        return SQL.bindMarker(typedMarker(tableInfo.getMappedPropertyName(versionColumnName), 
+                tableInfo.getColumnType(versionColumnName)));
+    }
+    
+    /**
+     * Render a mybatis parameter placeholder with explicit {@code javaType} and {@code jdbcType}, 
+     * so that the type handler of the parameter is resolved when the statement is built.
+     * @param paramName parameter name
+     * @param javaType type of the parameter, {@literal null} if unknown
+     * @return parameter marker, e.g. {@code #{name,javaType=java.lang.String,jdbcType=VARCHAR}}
+     */
+    protected static String typedMarker(String paramName, Class<?> javaType) {
+        if (javaType == null) {
+            return Statement.marker(paramName);
+        }
+        StringBuilder marker = new StringBuilder("#{").append(paramName)
+                .append(",javaType=").append(ClassUtils.resolvePrimitiveIfNecessary(javaType).getName());
+        JdbcType jdbcType = jdbcType(javaType);
+        if (jdbcType != null) {
+            marker.append(",jdbcType=").append(jdbcType.name());
+        }
+        return marker.append("}").toString();
+    }
+    
+    /**
+     * Get the {@link JdbcType} of a java type, it is used to bind {@literal null} values.
+     * @param javaType java type
+     * @return {@link JdbcType}, or {@literal null} if the java type has no standard mapping
+     */
+    static JdbcType jdbcType(Class<?> javaType) {
+        return JDBC_TYPES.get(ClassUtils.resolvePrimitiveIfNecessary(javaType));
     }
     
-    protected BindMarker forEachIdsBindMarker() {
-        return SQL.bindMarker(Statement.forEachCommaScript("list", "id"));
+    protected BindMarker idsBindMarker() {
+        return SQL.bindMarker(Statement.marker(PARAM_IDS));
     }
 
     public static ResultMap basicTypeResultMap(Configuration config, Class<?> basicType) {
@@ -31,7 +31,7 @@ class CountById extends AbstractStatement {
         Select select = StatementBuilder
                 .select(Functions.count(idColumn))
                 .from(table)
-                .where(idColumn.isEqualTo(getBindMarker(tableInfo.getIdColumnName())))
+                .where(idColumn.isEqualTo(getBindMarker(tableInfo, tableInfo.getIdColumnName())))
                 .build();
         return SqlRenderer.create(renderContext).render(select);
     }
@@ -2,6 +2,7 @@ package org.springframework.data.mybatis.statement;
 
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Delete;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.core.sql.render.RenderContext;
@@ -9,12 +10,25 @@ import org.springframework.data.relational.core.sql.render.SqlRenderer;
 
 class DeleteById extends AbstractStatement {
     
+    private final boolean versioned;
+    
     public DeleteById() {
-        super(DELETE_BY_ID, SqlCommandType.DELETE);
+        this(DELETE_BY_ID, false);
+    }
+    
+    /**
+     * Create a statement deletes an entity by id
+     * @param name statement name
+     * @param versioned whether the version of the entity is also compared
+     */
+    public DeleteById(String name, boolean versioned) {
+        super(name, SqlCommandType.DELETE);
+        this.versioned = versioned;
     }
 
     /**
-     * Create a {@code DELETE FROM … WHERE :id = …} statement.
+     * Create a {@code DELETE FROM … WHERE :id = …} statement, or {@code DELETE FROM … WHERE :id = … AND version = …} 
+     * statement if versioned.
      *
      * @return the statement as a {@link String}. Guaranteed to be not {@literal null}.
      */
@@ -22,9 +36,13 @@ class DeleteById extends AbstractStatement {
     public String renderSql(RenderContext renderContext, TableInfo tableInfo) {
         Table table = tableInfo.getAliasedTable();
         Column idColumn = table.column(tableInfo.getIdColumnName());
+        Condition where = idColumn.isEqualTo(getBindMarker(tableInfo, tableInfo.getIdColumnName()));
+        if (versioned && tableInfo.isVersioned()) {
+            where = where.and(table.column(tableInfo.getVersionColumnName()).isEqualTo(versionBindMarker(tableInfo)));
+        }
         Delete delete = Delete.builder()
                 .from(table)
-                .where(idColumn.isEqualTo(getBindMarker(tableInfo.getIdColumnName())))
+                .where(where)
                 .build();
         return SqlRenderer.create(renderContext).render(delete);
     }
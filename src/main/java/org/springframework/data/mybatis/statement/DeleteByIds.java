@@ -1,7 +1,5 @@
 package org.springframework.data.mybatis.statement;
 
-import java.util.List;
-
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.session.Configuration;
@@ -28,14 +26,14 @@ class DeleteByIds extends AbstractStatement {
         Column idColumn = table.column(tableInfo.getIdColumnName());
         Delete delete = Delete.builder()
                 .from(table)
-                .where(idColumn.in(forEachIdsBindMarker()))
+                .where(idColumn.in(idsBindMarker()))
                 .build();
-        return Statement.scriptTag(SqlRenderer.create(renderContext).render(delete));
+        return SqlRenderer.create(renderContext).render(delete);
     }
     
     @Override
-    protected SqlSource createSqlSource(Configuration config, String sqlScript) {
-        return config.getDefaultScriptingLanguageInstance().createSqlSource(config, sqlScript, List.class);
+    protected SqlSource createSqlSource(Configuration config, String sqlScript, TableInfo tableInfo) {
+        return new InClauseSqlSource(config, sqlScript, tableInfo.getIdType());
     }
 
 }
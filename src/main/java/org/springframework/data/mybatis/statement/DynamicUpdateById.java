@@ -0,0 +1,84 @@
+package org.springframework.data.mybatis.statement;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.data.relational.core.sql.render.RenderContext;
+
+/**
+ * A {@code UPDATE … WHERE :id = …} statement that only updates the columns changed since the entity was loaded.
+ * <p>
+ * The changed columns are resolved when the statement is executed, the sql of each set of changed columns is rendered
+ * once and kept by the statement, so that no statement is added to mybatis configuration at runtime.
+ * All columns are updated if no column or every column changed.
+ */
+class DynamicUpdateById extends AbstractStatement {
+
+    private final List<SqlIdentifier> columns;
+    private final Function<Object, BitSet> changedColumns;
+    private final RenderContext renderContext;
+
+    /**
+     * Create a statement only updates the changed columns
+     * @param columns columns that may change, indexed by the bits of the changed columns
+     * @param changedColumns resolves the changed columns of an entity, {@literal null} if unknown
+     * @param renderContext sql render context
+     */
+    DynamicUpdateById(List<SqlIdentifier> columns, Function<Object, BitSet> changedColumns, RenderContext renderContext) {
+        super(DYNAMIC_UPDATE_BY_ID, SqlCommandType.UPDATE);
+        this.columns = columns;
+        this.changedColumns = changedColumns;
+        this.renderContext = renderContext;
+    }
+
+    @Override
+    public String renderSql(RenderContext renderContext, TableInfo tableInfo) {
+        return new UpdateById().renderSql(renderContext, tableInfo);
+    }
+
+    @Override
+    protected SqlSource createSqlSource(Configuration config, String sqlScript, TableInfo tableInfo) {
+        return new ChangedColumnsSqlSource(config, createSqlSource(config, sqlScript), tableInfo);
+    }
+
+    private final class ChangedColumnsSqlSource implements SqlSource {
+
+        private final Configuration config;
+        private final SqlSource allColumns;
+        private final TableInfo tableInfo;
+        private final ConcurrentMap<BitSet, SqlSource> sqlSources = new ConcurrentHashMap<>();
+
+        ChangedColumnsSqlSource(Configuration config, SqlSource allColumns, TableInfo tableInfo) {
+            this.config = config;
+            this.allColumns = allColumns;
+            this.tableInfo = tableInfo;
+        }
+
+        @Override
+        public BoundSql getBoundSql(Object parameterObject) {
+            BitSet changed = changedColumns.apply(parameterObject);
+            if (changed == null || changed.isEmpty() || changed.cardinality() == columns.size()) {
+                return allColumns.getBoundSql(parameterObject);
+            }
+            return sqlSources.computeIfAbsent(changed, this::render).getBoundSql(parameterObject);
+        }
+
+        private SqlSource render(BitSet changed) {
+            List<SqlIdentifier> updateColumns = new ArrayList<>(changed.cardinality());
+            changed.stream().forEach(index -> updateColumns.add(columns.get(index)));
+            String sqlScript = new UpdateById(getName(), updateColumns).renderSql(renderContext, tableInfo);
+            return createSqlSource(config, sqlScript);
+        }
+
+    }
+
+}
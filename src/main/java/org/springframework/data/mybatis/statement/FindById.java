@@ -25,7 +25,7 @@ class FindById extends AbstractStatement {
         Column idColumn = table.column(tableInfo.getIdColumnName());
         Select select = StatementBuilder.select(tableInfo.getAliasedColumns())
                 .from(table)
-                .where(idColumn.isEqualTo(getBindMarker(tableInfo.getIdColumnName())))
+                .where(idColumn.isEqualTo(getBindMarker(tableInfo, tableInfo.getIdColumnName())))
                 .build();
         return SqlRenderer.create(renderContext).render(select);
     }
@@ -1,7 +1,5 @@
 package org.springframework.data.mybatis.statement;
 
-import java.util.List;
-
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.session.Configuration;
@@ -30,14 +28,14 @@ class FindByIds extends AbstractStatement {
         Column idColumn = table.column(tableInfo.getIdColumnName());
         Select select = StatementBuilder.select(tableInfo.getAliasedColumns())
                 .from(table)
-                .where(idColumn.in(forEachIdsBindMarker()))
+                .where(idColumn.in(idsBindMarker()))
                 .build();
-        return Statement.scriptTag(SqlRenderer.create(renderContext).render(select));
+        return SqlRenderer.create(renderContext).render(select);
     }
 
     @Override
-    protected SqlSource createSqlSource(Configuration config, String sqlScript) {
-        return config.getDefaultScriptingLanguageInstance().createSqlSource(config, sqlScript, List.class);
+    protected SqlSource createSqlSource(Configuration config, String sqlScript, TableInfo tableInfo) {
+        return new InClauseSqlSource(config, sqlScript, tableInfo.getIdType());
     }
 
 }
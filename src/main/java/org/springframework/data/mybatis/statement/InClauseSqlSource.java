@@ -0,0 +1,80 @@
+package org.springframework.data.mybatis.statement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.springframework.util.Assert;
+
+/**
+ * {@link SqlSource} of a statement with an {@code IN (...)} list of ids, a replacement of {@code <foreach>} scripts 
+ * that evaluates no OGNL expressions and binds no additional parameters.
+ * <p>
+ * The parameter marker of the id list is expanded to one {@code ?} per id, the sql and the parameter mappings 
+ * typed with the id type are cached per list size. The id list must be passed as the only parameter of the
+ * statement, so that mybatis binds it to {@value Statement#PARAM_IDS}.
+ */
+class InClauseSqlSource implements SqlSource {
+    
+    /**
+     * Lists larger than this are expanded without caching.
+     */
+    private static final int MAX_CACHED_SIZE = 1024;
+    
+    private final Configuration config;
+    private final String sqlBeforeIds;
+    private final String sqlAfterIds;
+    private final Class<?> idType;
+    private final Map<Integer, StaticSqlSource> sqlSources = new ConcurrentHashMap<>();
+    
+    /**
+     * Creates a new {@link InClauseSqlSource}
+     * @param config mybatis configuration
+     * @param sqlScript sql with the {@code #{list}} marker in the {@code IN} clause
+     * @param idType type of the ids, {@literal null} if unknown
+     */
+    InClauseSqlSource(Configuration config, String sqlScript, Class<?> idType) {
+        String marker = Statement.marker(Statement.PARAM_IDS);
+        int index = sqlScript.indexOf(marker);
+        Assert.isTrue(index >= 0, "Sql has no id list marker: " + sqlScript);
+        this.config = config;
+        this.sqlBeforeIds = sqlScript.substring(0, index);
+        this.sqlAfterIds = sqlScript.substring(index + marker.length());
+        this.idType = idType != null ? idType : Object.class;
+    }
+
+    @Override
+    public BoundSql getBoundSql(Object parameterObject) {
+        Object ids = parameterObject instanceof Map ? ((Map<?, ?>) parameterObject).get(Statement.PARAM_IDS) : null;
+        Assert.isInstanceOf(List.class, ids, "Ids must be passed as a list.");
+        int size = ((List<?>) ids).size();
+        Assert.isTrue(size > 0, "Ids must not be empty.");
+        StaticSqlSource sqlSource = size <= MAX_CACHED_SIZE 
+                ? sqlSources.computeIfAbsent(size, this::createSqlSource) : createSqlSource(size);
+        return sqlSource.getBoundSql(parameterObject);
+    }
+    
+    private StaticSqlSource createSqlSource(int size) {
+        StringBuilder sql = new StringBuilder(sqlBeforeIds.length() + sqlAfterIds.length() + size * 3);
+        List<ParameterMapping> parameterMappings = new ArrayList<>(size);
+        sql.append(sqlBeforeIds);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sql.append(Statement.COMMA);
+            }
+            sql.append('?');
+            String property = new StringBuilder(Statement.PARAM_IDS).append('[').append(i).append(']').toString();
+            parameterMappings.add(new ParameterMapping.Builder(config, property, idType)
+                    .jdbcType(AbstractStatement.jdbcType(idType)).build());
+        }
+        sql.append(sqlAfterIds);
+        return new StaticSqlSource(config, sql.toString(), parameterMappings);
+    }
+
+}
@@ -45,7 +45,7 @@ class Insert extends AbstractStatement {
         List<BindMarker> markers = insertColumns.stream()
                 .map(columnName -> {
                     String mappedPropertyName = tableInfo.getMappedPropertyName(columnName);
-                    return SQL.bindMarker(Statement.marker(mappedPropertyName));
+                    return SQL.bindMarker(typedMarker(mappedPropertyName, tableInfo.getColumnType(columnName)));
                 }).collect(Collectors.toList());
         return SqlRenderer.create(renderContext)
                 .render(org.springframework.data.relational.core.sql.Insert.builder()
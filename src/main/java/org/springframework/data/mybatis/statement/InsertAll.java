@@ -0,0 +1,76 @@
+package org.springframework.data.mybatis.statement;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.springframework.data.relational.core.sql.BindMarker;
+import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.SQL;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.data.relational.core.sql.Table;
+import org.springframework.data.relational.core.sql.render.RenderContext;
+import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.util.Assert;
+
+class InsertAll extends AbstractStatement {
+    
+    private static final String KEY_ID = "id";
+    private static final String ITEM = "item";
+    private static final String VALUES = " VALUES ";
+
+    public InsertAll() {
+        super(INSERT_ALL, SqlCommandType.INSERT);
+    }
+
+    /**
+     * Create a {@code INSERT INTO … (…) VALUES (…), (…), …} statement, one row for each item of the list parameter.
+     *
+     * @return the statement as a {@link String}. Guaranteed to be not {@literal null}.
+     */
+    @Override
+    public String renderSql(RenderContext renderContext, TableInfo tableInfo) {
+        Table table = tableInfo.getTable();
+        Set<SqlIdentifier> insertColumns = tableInfo.getInsertableColumns();
+        List<Column> columns = insertColumns.stream()
+                .map(columnName -> {
+                    return table.column(columnName);
+                }).collect(Collectors.toList());
+        List<BindMarker> markers = insertColumns.stream()
+                .map(columnName -> {
+                    String mappedPropertyName = tableInfo.getMappedPropertyName(columnName);
+                    return SQL.bindMarker(typedMarker(ITEM + DOT + mappedPropertyName, tableInfo.getColumnType(columnName)));
+                }).collect(Collectors.toList());
+        String insertSql = SqlRenderer.create(renderContext)
+                .render(org.springframework.data.relational.core.sql.Insert.builder()
+                .into(table)
+                .columns(columns)
+                .values(markers)
+                .build());
+        int valuesIndex = insertSql.indexOf(VALUES);
+        Assert.state(valuesIndex > 0, "Unexpected insert statement: " + insertSql);
+        String rowSql = insertSql.substring(valuesIndex + VALUES.length());
+        String sqlText = new StringBuilder(insertSql.substring(0, valuesIndex + VALUES.length()))
+                .append("<foreach collection='list' item='").append(ITEM)
+                .append("' separator='").append(COMMA).append("'>")
+                .append(rowSql).append("</foreach>").toString();
+        return Statement.scriptTag(sqlText);
+    }
+    
+    @Override
+    protected SqlSource createSqlSource(Configuration config, String sqlScript) {
+        return config.getDefaultScriptingLanguageInstance().createSqlSource(config, sqlScript, List.class);
+    }
+    
+    @Override
+    protected void configureBuilder(Configuration config, String namespace, MappedStatement.Builder builder) {
+        // generated keys of all rows are assigned to the items of the list parameter
+        builder.keyProperty(KEY_ID).keyGenerator(Jdbc3KeyGenerator.INSTANCE);
+    }
+
+}
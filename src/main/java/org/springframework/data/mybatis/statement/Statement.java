@@ -12,20 +12,31 @@ public interface Statement {
 
     String INSERT = "insert";
     String INSERT_WITH_ID = "insertWithId";
+    String INSERT_ALL = "insertAll";
     String UPDATE_BY_ID = "updateById";
+    String DYNAMIC_UPDATE_BY_ID = "dynamicUpdateById";
+    String UPSERT = "upsert";
     
     String COUNT_BY_ID = "countById";
     String COUNT_ALL = "countAll";
     String FIND_BY_ID = "findById";
     String FIND_BY_IDS = "findByIds";
     String FIND_ALL = "findAll";
+    String STREAM_ALL = "streamAll";
     String READ_LOCK_BY_ID = "readLockById";
     String WRITE_LOCK_BY_ID = "writeLockById";
     
     String DELETE_BY_ID = "deleteById";
+    String DELETE_BY_ID_AND_VERSION = "deleteByIdAndVersion";
     String DELETE_BY_IDS = "deleteByIds";
     String DELETE_ALL = "deleteAll";
     
+    String PARAM_ORDER_BY = "orderBy";
+    /**
+     * Name that mybatis binds a list parameter to.
+     */
+    String PARAM_IDS = "list";
+    
     String DOT = ".";
     String COMMA = ",";
     
@@ -0,0 +1,50 @@
+package org.springframework.data.mybatis.statement;
+
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.springframework.data.mybatis.repository.support.BoundedCache;
+
+/**
+ * A bounded cache of {@link MappedStatement}s generated at runtime, e.g. paging statements, 
+ * which are kept out of mybatis configuration.
+ * <p>
+ * Statements are keyed by {@link AbstractStatement#cacheKey()}, the sql is only rendered when a statement is built. Lookups are lock-free, a missing statement is only
+ * built once under concurrency, and the least recently used statements are evicted when the cache is full.
+ *
+ * @see BoundedCache
+ */
+public class StatementCache {
+    
+    public static final int DEFAULT_MAX_SIZE = 1024;
+    
+    private final BoundedCache<Object, MappedStatement> statements;
+    
+    public StatementCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+    
+    /**
+     * Creates a new {@link StatementCache}
+     * @param maxSize maximum number of statements, must be positive
+     */
+    public StatementCache(int maxSize) {
+        this.statements = new BoundedCache<>(maxSize);
+    }
+    
+    /**
+     * Get the {@link MappedStatement} of a statement that does not depend on namespace, render context and table info,
+     * it is built if not cached.
+     * @param config mybatis configuration
+     * @param statement statement to render
+     * @return {@link MappedStatement}
+     */
+    public MappedStatement get(Configuration config, AbstractStatement statement) {
+        return statements.computeIfAbsent(statement.cacheKey(), key -> statement.build(config, null, 
+                statement.statementId(null), statement.renderSql(null, null), null));
+    }
+    
+    public int size() {
+        return statements.size();
+    }
+    
+}
@@ -3,8 +3,10 @@ package org.springframework.data.mybatis.statement;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Deque;
 import java.util.List;
+import java.util.function.Function;
 
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultFlag;
@@ -13,15 +15,24 @@ import org.apache.ibatis.mapping.ResultMapping;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mapping.PropertyHandler;
 import org.springframework.data.mybatis.repository.MybatisRepository;
 import org.springframework.data.mybatis.repository.support.SimpleMybatisRepository;
 import org.springframework.data.relational.core.dialect.Dialect;
+import org.springframework.data.relational.core.dialect.H2Dialect;
+import org.springframework.data.relational.core.dialect.MySqlDialect;
+import org.springframework.data.relational.core.dialect.PostgresDialect;
 import org.springframework.data.relational.core.dialect.RenderContextFactory;
+import org.springframework.data.relational.core.dialect.SqlServerDialect;
+import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.RelationalMappingContext;
 import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
 import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
 import org.springframework.data.relational.core.sql.render.RenderContext;
+import org.springframework.util.Assert;
 
 /**
  * Utility class to configure implementations of {@link org.springframework.data.mybatis.statement.Statement}
@@ -34,9 +45,15 @@ public class Statements {
     
     private static final Logger logger = LoggerFactory.getLogger(Statements.class);
     
+    /**
+     * Bind parameter limit for databases that are not known, low enough for most JDBC drivers.
+     */
+    public static final int DEFAULT_MAX_BIND_PARAMETERS = 1000;
+    
     private static final List<AbstractStatement> DEFAULT_STATEMENTS = Arrays.asList(
             new org.springframework.data.mybatis.statement.Insert(false),
             new org.springframework.data.mybatis.statement.Insert(true),
+            new InsertAll(),
             new UpdateById(),
             
             new FindById(),
@@ -62,8 +79,9 @@ public class Statements {
      * @param domainType Domain type for {@link MybatisRepository}
      * @param mappingContext {@link RelationalMappingContext}
      * @param dialect Implementation of {@link Dialect}
+     * @return {@link TableInfo} of the domain type
      */
-    public static void configure(org.apache.ibatis.session.Configuration config, Class<?> repositoryType, Class<?> domainType, 
+    public static TableInfo configure(org.apache.ibatis.session.Configuration config, Class<?> repositoryType, Class<?> domainType, 
             RelationalMappingContext mappingContext, Dialect dialect) {
         
         String namespace = repositoryType.getName();
@@ -75,6 +93,89 @@ public class Statements {
         DEFAULT_STATEMENTS.forEach(statement -> {
             statement.configure(config, namespace, renderContext, tableInfo);
         });
+        new Upsert(dialect).configure(config, namespace, renderContext, tableInfo);
+        if (tableInfo.isVersioned()) {
+            new DeleteById(Statement.DELETE_BY_ID_AND_VERSION, true).configure(config, namespace, renderContext, tableInfo);
+        }
+        return tableInfo;
+    }
+    
+    /**
+     * Configure a {@link MappedStatement} that only updates the columns of an entity changed since it was loaded,
+     * the changed columns are resolved when the statement is executed.
+     * 
+     * @param config Mybatis configuration
+     * @param namespace namespace for repository
+     * @param renderContext sql render context
+     * @param tableInfo table info
+     * @param columns columns that may change, indexed by the bits of the changed columns
+     * @param changedColumns resolves the changed columns of an entity, {@literal null} if unknown
+     * @return {@link MappedStatement}
+     */
+    public static MappedStatement configureDynamicUpdateById(org.apache.ibatis.session.Configuration config, 
+            String namespace, RenderContext renderContext, TableInfo tableInfo, List<SqlIdentifier> columns, 
+            Function<Object, BitSet> changedColumns) {
+        return new DynamicUpdateById(columns, changedColumns, renderContext)
+                .configure(config, namespace, renderContext, tableInfo);
+    }
+    
+    /**
+     * Configure a {@link MappedStatement} that reads all entities with a forward-only cursor.
+     * 
+     * @param config Mybatis configuration
+     * @param namespace namespace for repository
+     * @param dialect Implementation of {@link Dialect}
+     * @param tableInfo table info
+     * @param fetchSize number of rows fetched per round trip, driver default if null
+     * @return {@link MappedStatement}
+     */
+    public static MappedStatement configureStreamAll(org.apache.ibatis.session.Configuration config, String namespace, 
+            Dialect dialect, TableInfo tableInfo, Integer fetchSize) {
+        RenderContext renderContext = new RenderContextFactory(dialect).createRenderContext();
+        return new StreamAll(fetchSize).configure(config, namespace, renderContext, tableInfo);
+    }
+    
+    /**
+     * Render the {@code ORDER BY} fragment of a {@link Sort} on the aliased columns of the table.
+     * 
+     * @param tableInfo table info
+     * @param dialect Implementation of {@link Dialect}
+     * @param sort sort of mapped property names
+     * @return {@code ORDER BY} fragment, or {@literal null} if unsorted
+     * @throws IllegalArgumentException if a property is not mapped to a column
+     */
+    public static String orderBy(TableInfo tableInfo, Dialect dialect, Sort sort) {
+        if (sort == null || sort.isUnsorted()) {
+            return null;
+        }
+        IdentifierProcessing identifierProcessing = dialect.getIdentifierProcessing();
+        String tableAlias = tableInfo.getAliasedTable().getReferenceName().toSql(identifierProcessing);
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            SqlIdentifier columnName = tableInfo.getColumnName(order.getProperty());
+            Assert.notNull(columnName, "No column is mapped to property: " + order.getProperty());
+            orders.add(tableAlias + Statement.DOT + columnName.toSql(identifierProcessing) + " " + order.getDirection().name());
+        }
+        return String.join(", ", orders);
+    }
+    
+    /**
+     * Get the maximum number of bind parameters that a single statement can carry.
+     * 
+     * @param dialect Implementation of {@link Dialect}
+     * @return maximum number of bind parameters
+     */
+    public static int maxBindParameters(Dialect dialect) {
+        if (dialect instanceof MySqlDialect) {
+            return 65535;
+        }
+        if (dialect instanceof PostgresDialect || dialect instanceof H2Dialect) {
+            return 32767;
+        }
+        if (dialect instanceof SqlServerDialect) {
+            return 2100;
+        }
+        return DEFAULT_MAX_BIND_PARAMETERS;
     }
     
     public static void configureDefaultResultMap(org.apache.ibatis.session.Configuration config, String namespace, 
@@ -99,7 +200,12 @@ public class Statements {
         entity.doWithProperties((PropertyHandler<RelationalPersistentProperty>) property -> {
             Class<?> propertyType = property.getActualType();
             String propertyName = property.getName();
-            String column = underscoreColumn ? TableInfo.underscoreName(propertyName) : propertyName;
+            String column;
+            if (property.isAnnotationPresent(Column.class)) {
+                column = property.getColumnName().getReference();
+            } else {
+                column = underscoreColumn ? TableInfo.underscoreName(propertyName) : propertyName;
+            }
             ResultMapping.Builder mappingBuilder = new ResultMapping.Builder(config, propertyName, column, propertyType);
             if (property.isEntity()) {
                 if (enclosingClassStack.contains(propertyType)) {
@@ -125,7 +231,8 @@ public class Statements {
         
         Class<?> enclosingType = enclosingClassStack.pollFirst();
         String resultMapId = enclosingType == null ? defaultResultMapId : namespace + nestedResultMapIdPrefix;
-        Boolean autoMapping = enclosingType == null ? true : AutoMappingBehavior.FULL.equals(config.getAutoMappingBehavior());
+        // all persistent properties are mapped with resolved type handlers, columns are only auto-mapped on request
+        Boolean autoMapping = AutoMappingBehavior.FULL.equals(config.getAutoMappingBehavior());
         
         logger.info("Building default resultMap: domainType={}, resultMapId={}", domainType.getName(), resultMapId);
         ResultMap resultMap = new ResultMap.Builder(config, resultMapId, domainType, mappings, autoMapping).build();
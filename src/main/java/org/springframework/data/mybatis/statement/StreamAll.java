@@ -0,0 +1,51 @@
+package org.springframework.data.mybatis.statement;
+
+import java.util.Map;
+
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.StatementBuilder;
+import org.springframework.data.relational.core.sql.render.RenderContext;
+import org.springframework.data.relational.core.sql.render.SqlRenderer;
+
+class StreamAll extends AbstractStatement {
+    
+    private final Integer fetchSize;
+
+    public StreamAll(Integer fetchSize) {
+        super(STREAM_ALL, SqlCommandType.SELECT);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Create a {@code SELECT … FROM … [ORDER BY …]} statement to be read with a forward-only cursor, 
+     * the {@code ORDER BY} clause is rendered from the {@value Statement#PARAM_ORDER_BY} parameter.
+     *
+     * @return the statement as a {@link String}. Guaranteed to be not {@literal null}.
+     */
+    @Override
+    public String renderSql(RenderContext renderContext, TableInfo tableInfo) {
+        Select select = StatementBuilder.select(tableInfo.getAliasedColumns())
+                .from(tableInfo.getAliasedTable())
+                .build();
+        return Statement.scriptTag(SqlRenderer.create(renderContext).render(select) 
+                + "<if test='" + PARAM_ORDER_BY + " != null'> ORDER BY ${" + PARAM_ORDER_BY + "}</if>");
+    }
+
+    @Override
+    protected void configureBuilder(Configuration config, String namespace, MappedStatement.Builder builder) {
+        super.configureBuilder(config, namespace, builder);
+        builder.fetchSize(fetchSize);
+        builder.resultSetType(ResultSetType.FORWARD_ONLY);
+    }
+    
+    @Override
+    protected SqlSource createSqlSource(Configuration config, String sqlScript) {
+        return config.getDefaultScriptingLanguageInstance().createSqlSource(config, sqlScript, Map.class);
+    }
+
+}
@@ -27,8 +27,12 @@ public class TableInfo {
     private final Table table;
     private final Table aliasedTable;
     private SqlIdentifier idColumnName;
+    private Class<?> idType;
+    private SqlIdentifier versionColumnName;
     private final List<SqlIdentifier> columnNames = new ArrayList<>();
     private final Map<SqlIdentifier, String> columnNamesToPropertyNamesMap = new HashMap<>();
+    private final Map<String, SqlIdentifier> propertyNamesToColumnNamesMap = new HashMap<>();
+    private final Map<SqlIdentifier, Class<?>> columnTypes = new HashMap<>();
     private final List<SqlIdentifier> nonIdColumnNames = new ArrayList<>();
     private final Set<SqlIdentifier> readOnlyColumnNames = new HashSet<>();
     private Set<SqlIdentifier> insertableColumns;
@@ -113,14 +117,20 @@ public class TableInfo {
                 mappedPropertyName = ownerPropertyName + "." + mappedPropertyName;
             } else {
                 tableInfo.idColumnName = columnName;
+                tableInfo.idType = property.getType();
             }
         } else {
             tableInfo.nonIdColumnNames.add(columnName);
+            if (property.isVersionProperty() && !StringUtils.hasText(ownerPropertyName)) {
+                tableInfo.versionColumnName = columnName;
+            }
         }
         if (!property.isWritable()) {
             tableInfo.readOnlyColumnNames.add(columnName);
         }
         tableInfo.columnNamesToPropertyNamesMap.put(columnName, mappedPropertyName);
+        tableInfo.columnTypes.put(columnName, property.getType());
+        tableInfo.propertyNamesToColumnNamesMap.put(mappedPropertyName, columnName);
     }
 
     public Table getTable() {
@@ -135,6 +145,26 @@ public class TableInfo {
         return idColumnName;
     }
     
+    /**
+     * Get the type of the id property
+     * @return id type, or {@literal null} if the entity has no id
+     */
+    public Class<?> getIdType() {
+        return idType;
+    }
+    
+    /**
+     * Get the column of the property annotated with {@link org.springframework.data.annotation.Version}
+     * @return version column name, or {@literal null} if the entity is not versioned
+     */
+    public SqlIdentifier getVersionColumnName() {
+        return versionColumnName;
+    }
+    
+    public boolean isVersioned() {
+        return versionColumnName != null;
+    }
+    
     public Column getIdColumn() {
         return getTable().column(idColumnName);
     }
@@ -175,4 +205,17 @@ public class TableInfo {
         return columnNamesToPropertyNamesMap.get(columnName);
     }
     
+    public SqlIdentifier getColumnName(String mappedPropertyName) {
+        return propertyNamesToColumnNamesMap.get(mappedPropertyName);
+    }
+    
+    /**
+     * Get the type of the property mapped to a column
+     * @param columnName column name
+     * @return property type, or {@literal null} if no property is mapped to the column
+     */
+    public Class<?> getColumnType(SqlIdentifier columnName) {
+        return columnTypes.get(columnName);
+    }
+    
 }
@@ -1,5 +1,6 @@
 package org.springframework.data.mybatis.statement;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -8,7 +9,10 @@ import org.springframework.data.relational.core.sql.AssignValue;
 import org.springframework.data.relational.core.sql.Assignments;
 import org.springframework.data.relational.core.sql.BindMarker;
 import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.Condition;
+import org.springframework.data.relational.core.sql.Expressions;
 import org.springframework.data.relational.core.sql.SQL;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.core.sql.Update;
 import org.springframework.data.relational.core.sql.render.RenderContext;
@@ -16,12 +20,25 @@ import org.springframework.data.relational.core.sql.render.SqlRenderer;
 
 class UpdateById extends AbstractStatement {
     
+    private final Collection<SqlIdentifier> columns;
+    
     public UpdateById() {
-        super(UPDATE_BY_ID, SqlCommandType.UPDATE);
+        this(UPDATE_BY_ID, null);
+    }
+    
+    /**
+     * Create a statement only updates the given columns
+     * @param name statement name
+     * @param columns columns to update, all updateable columns if null
+     */
+    public UpdateById(String name, Collection<SqlIdentifier> columns) {
+        super(name, SqlCommandType.UPDATE);
+        this.columns = columns;
     }
 
     /**
-     * Create a {@code UPDATE … SET … WHERE :id = ...} statement.
+     * Create a {@code UPDATE … SET … WHERE :id = ...} statement. For a versioned entity, the version is 
+     * incremented by the statement and also compared: {@code SET version = version + 1 … WHERE :id = … AND version = …}.
      *
      * @return the statement as a {@link String}. Guaranteed to be not {@literal null}.
      */
@@ -29,16 +46,26 @@ class UpdateById extends AbstractStatement {
     public String renderSql(RenderContext renderContext, TableInfo tableInfo) {
         Table table = tableInfo.getAliasedTable();
         Column idColumn = table.column(tableInfo.getIdColumnName());
-        List<AssignValue> assignments = tableInfo.getUpdateableColumns().stream()
+        SqlIdentifier versionColumnName = tableInfo.getVersionColumnName();
+        Collection<SqlIdentifier> updateColumns = columns != null ? columns : tableInfo.getUpdateableColumns();
+        List<AssignValue> assignments = updateColumns.stream()
+                .filter(columnName -> !columnName.equals(versionColumnName))
                 .map(columnName -> {
                     String mappedPropertyName = tableInfo.getMappedPropertyName(columnName);
-                    BindMarker bindMarker = SQL.bindMarker(Statement.marker(mappedPropertyName));
+                    BindMarker bindMarker = SQL.bindMarker(typedMarker(mappedPropertyName, tableInfo.getColumnType(columnName)));
                     return Assignments.value(table.column(columnName), bindMarker);
                 }).collect(Collectors.toList());
+        Condition where = idColumn.isEqualTo(getBindMarker(tableInfo, tableInfo.getIdColumnName()));
+        if (versionColumnName != null) {
+            Column versionColumn = table.column(versionColumnName);
+            String increment = versionColumnName.toSql(renderContext.getIdentifierProcessing()) + " + 1";
+            assignments.add(Assignments.value(versionColumn, Expressions.just(increment)));
+            where = where.and(versionColumn.isEqualTo(versionBindMarker(tableInfo)));
+        }
         Update update = Update.builder()
                 .table(table)
                 .set(assignments)
-                .where(idColumn.isEqualTo(getBindMarker(tableInfo.getIdColumnName())))
+                .where(where)
                 .build();
         return SqlRenderer.create(renderContext).render(update);
     }
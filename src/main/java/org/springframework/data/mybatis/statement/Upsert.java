@@ -0,0 +1,149 @@
+package org.springframework.data.mybatis.statement;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.springframework.data.relational.core.dialect.Dialect;
+import org.springframework.data.relational.core.dialect.H2Dialect;
+import org.springframework.data.relational.core.dialect.MySqlDialect;
+import org.springframework.data.relational.core.dialect.PostgresDialect;
+import org.springframework.data.relational.core.sql.BindMarker;
+import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
+import org.springframework.data.relational.core.sql.SQL;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.data.relational.core.sql.Table;
+import org.springframework.data.relational.core.sql.render.RenderContext;
+import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.util.Assert;
+
+/**
+ * Insert an entity with identifier, or update it if the identifier already exists, 
+ * in one statement for the given {@link Dialect}:
+ * <ul>
+ * <li>MySQL: {@code INSERT INTO ... (...) VALUES (...) ON DUPLICATE KEY UPDATE ...}</li>
+ * <li>PostgreSQL: {@code INSERT INTO ... (...) VALUES (...) ON CONFLICT (id) DO UPDATE SET ...}</li>
+ * <li>H2: {@code MERGE INTO ... (...) KEY (id) VALUES (...)}</li>
+ * <li>Others: {@code MERGE INTO ... USING (VALUES (...)) ... WHEN MATCHED ... WHEN NOT MATCHED ...}</li>
+ * </ul>
+ * The version of a versioned entity is written as one more than the version of the entity, whether the row is 
+ * inserted or updated, and the row is only updated if its version is the version of the entity, 
+ * except on MySQL which can not condition {@code ON DUPLICATE KEY UPDATE}. H2 uses the standard {@code MERGE} 
+ * statement for versioned entities.
+ */
+class Upsert extends AbstractStatement {
+    
+    private static final String VALUES = " VALUES ";
+    private static final String SOURCE_ALIAS = "s";
+    
+    private final Dialect dialect;
+
+    public Upsert(Dialect dialect) {
+        super(UPSERT, SqlCommandType.UPDATE);
+        Assert.notNull(dialect, "Dialect is required.");
+        this.dialect = dialect;
+    }
+
+    /**
+     * Create a dialect specific upsert statement.
+     *
+     * @return the statement as a {@link String}. Guaranteed to be not {@literal null}.
+     */
+    @Override
+    public String renderSql(RenderContext renderContext, TableInfo tableInfo) {
+        Table table = tableInfo.getTable();
+        Set<SqlIdentifier> insertColumns = new LinkedHashSet<>();
+        insertColumns.add(tableInfo.getIdColumnName());
+        insertColumns.addAll(tableInfo.getInsertableColumns());
+        List<Column> columns = insertColumns.stream()
+                .map(columnName -> {
+                    return table.column(columnName);
+                }).collect(Collectors.toList());
+        SqlIdentifier versionColumnName = tableInfo.getVersionColumnName();
+        List<BindMarker> markers = insertColumns.stream()
+                .map(columnName -> {
+                    String mappedPropertyName = tableInfo.getMappedPropertyName(columnName);
+                    String marker = typedMarker(mappedPropertyName, tableInfo.getColumnType(columnName));
+                    return SQL.bindMarker(columnName.equals(versionColumnName) ? marker + " + 1" : marker);
+                }).collect(Collectors.toList());
+        String insertSql = SqlRenderer.create(renderContext)
+                .render(org.springframework.data.relational.core.sql.Insert.builder()
+                .into(table)
+                .columns(columns)
+                .values(markers)
+                .build());
+        
+        IdentifierProcessing processing = renderContext.getIdentifierProcessing();
+        String idColumn = tableInfo.getIdColumnName().toSql(processing);
+        Set<SqlIdentifier> updateColumns = new LinkedHashSet<>(tableInfo.getInsertableColumns());
+        updateColumns.retainAll(tableInfo.getUpdateableColumns());
+        updateColumns.remove(versionColumnName);
+        String tableName = table.getName().toSql(processing);
+        String versionColumn = versionColumnName != null ? versionColumnName.toSql(processing) : null;
+        String versionIncrement = versionColumn != null ? 
+                ", " + versionColumn + " = " + tableName + DOT + versionColumn + " + 1" : "";
+        
+        if (dialect instanceof MySqlDialect) {
+            return new StringBuilder(insertSql).append(" ON DUPLICATE KEY UPDATE ")
+                    .append(assignments(updateColumns, processing, column -> "VALUES(" + column + ")"))
+                    .append(versionIncrement)
+                    .toString();
+        }
+        int valuesIndex = insertSql.indexOf(VALUES);
+        Assert.state(valuesIndex > 0, "Unexpected insert statement: " + insertSql);
+        if (dialect instanceof H2Dialect && versionColumn == null) {
+            return new StringBuilder("MERGE").append(insertSql, "INSERT".length(), valuesIndex)
+                    .append(" KEY (").append(idColumn).append(")")
+                    .append(insertSql.substring(valuesIndex))
+                    .toString();
+        }
+        if (dialect instanceof PostgresDialect) {
+            StringBuilder upsert = new StringBuilder(insertSql)
+                    .append(" ON CONFLICT (").append(idColumn).append(") DO UPDATE SET ")
+                    .append(assignments(updateColumns, processing, column -> "EXCLUDED." + column))
+                    .append(versionIncrement);
+            if (versionColumn != null) {
+                upsert.append(" WHERE ").append(tableName).append(DOT).append(versionColumn)
+                        .append(" = EXCLUDED.").append(versionColumn).append(" - 1");
+            }
+            return upsert.toString();
+        }
+        // standard MERGE statement
+        String columnList = insertColumns.stream()
+                .map(column -> column.toSql(processing))
+                .collect(Collectors.joining(", "));
+        String sourceColumnList = insertColumns.stream()
+                .map(column -> SOURCE_ALIAS + DOT + column.toSql(processing))
+                .collect(Collectors.joining(", "));
+        StringBuilder merge = new StringBuilder("MERGE INTO ").append(tableName)
+                .append(" USING (").append(insertSql.substring(valuesIndex + 1)).append(") ")
+                .append(SOURCE_ALIAS).append(" (").append(columnList).append(")")
+                .append(" ON (").append(tableName).append(DOT).append(idColumn)
+                .append(" = ").append(SOURCE_ALIAS).append(DOT).append(idColumn).append(")")
+                .append(" WHEN MATCHED");
+        if (versionColumn != null) {
+            merge.append(" AND ").append(tableName).append(DOT).append(versionColumn)
+                    .append(" = ").append(SOURCE_ALIAS).append(DOT).append(versionColumn).append(" - 1");
+        }
+        return merge.append(" THEN UPDATE SET ")
+                .append(assignments(updateColumns, processing, column -> SOURCE_ALIAS + DOT + column))
+                .append(versionIncrement)
+                .append(" WHEN NOT MATCHED THEN INSERT (").append(columnList).append(")")
+                .append(" VALUES (").append(sourceColumnList).append(")")
+                .toString();
+    }
+    
+    private static String assignments(Set<SqlIdentifier> columns, IdentifierProcessing processing, 
+            Function<String, String> valueFunction) {
+        return columns.stream()
+                .map(column -> {
+                    String columnName = column.toSql(processing);
+                    return columnName + " = " + valueFunction.apply(columnName);
+                }).collect(Collectors.joining(", "));
+    }
+
+}
@@ -32,7 +32,7 @@ class WriteLockById extends AbstractStatement {
         Select select = StatementBuilder
             .select(idColumn)
             .from(table)
-            .where(idColumn.isEqualTo(getBindMarker(tableInfo.getIdColumnName())))
+            .where(idColumn.isEqualTo(getBindMarker(tableInfo, tableInfo.getIdColumnName())))
             .lock(LockMode.PESSIMISTIC_WRITE)
             .build();
         return SqlRenderer.create(renderContext).render(select);
@@ -1,7 +1,9 @@
 package org.springframework.data.mybatis.statement.page;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.BiPredicate;
 
 import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.mapping.MappedStatement.Builder;
@@ -24,12 +26,27 @@ public class Count extends AbstractStatement {
     private final String originalStatementId;
     private final String originalSql;
     private final List<ParameterMapping> parameterMappings;
+    private final BiPredicate<String, String> uniqueKey;
     
     public Count(String originalStatementId, String originalSql, List<ParameterMapping> parameterMappings) {
+        this(originalStatementId, originalSql, parameterMappings, (table, column) -> false);
+    }
+    
+    /**
+     * Creates a new {@link Count}
+     * @param originalStatementId id of the select statement
+     * @param originalSql sql of the select statement
+     * @param parameterMappings parameter mappings of the select statement
+     * @param uniqueKey tests whether a column of a table (both in lower case) is a unique key, 
+     * {@code LEFT JOIN}s on unique keys may be pruned from the count statement
+     */
+    public Count(String originalStatementId, String originalSql, List<ParameterMapping> parameterMappings,
+            BiPredicate<String, String> uniqueKey) {
         super(statementName(originalSql), SqlCommandType.SELECT);
         this.originalStatementId = originalStatementId;
         this.originalSql = originalSql;
         this.parameterMappings = parameterMappings;
+        this.uniqueKey = uniqueKey;
     }
 
     private static String statementName(String originalSql) {
@@ -40,14 +57,25 @@ public class Count extends AbstractStatement {
     protected String statementId(String namespace) {
         return new StringBuilder(originalStatementId).append("-count-").append(this.getName()).toString();
     }
+    
+    @Override
+    protected Object cacheKey() {
+        return Arrays.asList("count", originalStatementId, originalSql);
+    }
 
     /**
-     * Create a {@code SELECT COUNT(*) FROM (:originalSql)} statement.
+     * Rewrite the original sql as a {@code SELECT COUNT(*) FROM ...} statement, 
+     * or create a {@code SELECT COUNT(*) FROM (:originalSql)} statement if it can not be rewritten safely.
      *
      * @return the statement as a {@link String}. Guaranteed to be not {@literal null}.
+     * @see SelectSqlRewriter
      */
     @Override
     public String renderSql(RenderContext renderContext, TableInfo tableInfo) {
+        String countSql = SelectSqlRewriter.count(originalSql, uniqueKey);
+        if (countSql != null) {
+            return countSql;
+        }
         return new StringBuilder("SELECT COUNT(*) FROM (").append(originalSql).append(") total").toString();
     }
 
@@ -0,0 +1,208 @@
+package org.springframework.data.mybatis.statement.page;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement.Builder;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.mybatis.repository.query.PageableInteceptor;
+import org.springframework.data.mybatis.statement.AbstractStatement;
+import org.springframework.data.mybatis.statement.TableInfo;
+import org.springframework.data.relational.core.dialect.Dialect;
+import org.springframework.data.relational.core.dialect.SqlServerDialect;
+import org.springframework.data.relational.core.sql.render.RenderContext;
+import org.springframework.util.Assert;
+
+/**
+ * Generate a keyset (seek) pagination statement for a sql, the identifier is always the last key,
+ * so that the order of rows is unique.
+ * <p>
+ * The original sql is wrapped in a {@code SELECT * FROM (...) keyset} subquery, so its selected column names 
+ * must be unique: a joined select like {@code SELECT b.*, p.* ...} is rejected, columns of the joined tables 
+ * must be selected with aliases instead. The keys are compared by their unqualified column names in the subquery. 
+ * The sort properties must not be {@literal null}, a {@literal null} key compares to neither greater nor less, 
+ * so its row would be skipped, sort properties of nullable columns are not supported.
+ * 
+ * @see PageableInteceptor
+ */
+public class Keyset extends AbstractStatement {
+    
+    public static final String PARAM_KEY_PREFIX = "keyset_";
+    public static final String DEFAULT_ID_PROPERTY = "id";
+    
+    private static final Pattern COLUMN_PATTERN = Pattern.compile("\\w+");
+    
+    private final String originalStatementId;
+    private final List<ParameterMapping> parameterMappings;
+    private final List<ResultMap> resultMaps;
+    private final List<String> keyProperties = new ArrayList<>();
+    private final List<Integer> keyParameters = new ArrayList<>();
+    private final String sql;
+    
+    /**
+     * Creates a new {@link Keyset}
+     * @param originalStatementId id of the original statement
+     * @param originalSql sql of the original statement
+     * @param parameterMappings parameter mappings of the original sql
+     * @param resultMaps result maps of the original statement, used to resolve the columns of the keys
+     * @param sort sort of mapped properties
+     * @param limit maximum number of rows
+     * @param initial whether reading from the initial position, no keys are compared then
+     * @param dialect Implementation of {@link Dialect}
+     * @param underscoreColumn whether unmapped properties are "underscore" columns
+     */
+    public Keyset(String originalStatementId, String originalSql, List<ParameterMapping> parameterMappings, 
+            List<ResultMap> resultMaps, Sort sort, int limit, boolean initial, Dialect dialect, boolean underscoreColumn) {
+        super(statementName(originalSql), SqlCommandType.SELECT);
+        this.originalStatementId = originalStatementId;
+        this.parameterMappings = parameterMappings;
+        this.resultMaps = resultMaps;
+        this.sql = buildSql(originalSql, sort, limit, initial, dialect, underscoreColumn);
+    }
+    
+    private static String statementName(String originalSql) {
+        return String.valueOf(originalSql.hashCode());
+    }
+    
+    private String buildSql(String originalSql, Sort sort, int limit, boolean initial, Dialect dialect, 
+            boolean underscoreColumn) {
+        String duplicateColumn = SelectSqlRewriter.duplicateColumn(originalSql);
+        Assert.isNull(duplicateColumn, () -> "Keyset pagination needs unique column names, but " + duplicateColumn 
+                + " is selected more than once by: " + originalStatementId);
+        ResultMap resultMap = resultMaps.isEmpty() ? null : resultMaps.get(0);
+        String idProperty = idProperty(resultMap);
+        List<String> columns = new ArrayList<>();
+        List<Direction> directions = new ArrayList<>();
+        for (Order order : sort) {
+            if (!order.getProperty().equals(idProperty)) {
+                keyProperties.add(order.getProperty());
+                columns.add(column(resultMap, order.getProperty(), underscoreColumn));
+                directions.add(order.getDirection());
+            }
+        }
+        // the identifier follows the direction of the last sort order
+        Direction idDirection = directions.isEmpty() ? Direction.ASC : directions.get(directions.size() - 1);
+        keyProperties.add(idProperty);
+        columns.add(column(resultMap, idProperty, underscoreColumn));
+        directions.add(idDirection);
+        
+        StringBuilder sqlBuf = new StringBuilder("SELECT * FROM (").append(originalSql).append(") keyset");
+        if (!initial) {
+            sqlBuf.append(" WHERE ");
+            boolean sameDirection = directions.stream().allMatch(idDirection::equals);
+            if (sameDirection && !(dialect instanceof SqlServerDialect)) {
+                // row value comparison: (c1, c2) > (?, ?)
+                sqlBuf.append("(").append(String.join(", ", columns)).append(") ")
+                    .append(comparator(idDirection)).append(" (");
+                for (int i = 0; i < columns.size(); i++) {
+                    sqlBuf.append(i == 0 ? "?" : ", ?");
+                    keyParameters.add(i);
+                }
+                sqlBuf.append(")");
+            } else {
+                // expanded comparison: (c1 > ? OR (c1 = ? AND c2 > ?))
+                sqlBuf.append("(");
+                for (int i = 0; i < columns.size(); i++) {
+                    sqlBuf.append(i == 0 ? "(" : " OR (");
+                    for (int j = 0; j < i; j++) {
+                        sqlBuf.append(columns.get(j)).append(" = ? AND ");
+                        keyParameters.add(j);
+                    }
+                    sqlBuf.append(columns.get(i)).append(" ").append(comparator(directions.get(i))).append(" ?)");
+                    keyParameters.add(i);
+                }
+                sqlBuf.append(")");
+            }
+        }
+        sqlBuf.append(" ORDER BY ");
+        for (int i = 0; i < columns.size(); i++) {
+            sqlBuf.append(i == 0 ? "" : ", ").append(columns.get(i)).append(" ").append(directions.get(i).name());
+        }
+        sqlBuf.append(" ").append(dialect.limit().getLimit(limit));
+        return sqlBuf.toString();
+    }
+    
+    private static String comparator(Direction direction) {
+        return direction.isAscending() ? ">" : "<";
+    }
+    
+    private static String idProperty(ResultMap resultMap) {
+        if (resultMap != null) {
+            for (ResultMapping mapping : resultMap.getIdResultMappings()) {
+                if (mapping.getFlags().contains(ResultFlag.ID) && mapping.getProperty() != null) {
+                    return mapping.getProperty();
+                }
+            }
+        }
+        return DEFAULT_ID_PROPERTY;
+    }
+    
+    private static String column(ResultMap resultMap, String property, boolean underscoreColumn) {
+        String column = null;
+        if (resultMap != null) {
+            for (ResultMapping mapping : resultMap.getPropertyResultMappings()) {
+                if (property.equals(mapping.getProperty()) && mapping.getColumn() != null) {
+                    column = mapping.getColumn();
+                    break;
+                }
+            }
+        }
+        if (column == null) {
+            column = underscoreColumn ? TableInfo.underscoreName(property) : property;
+        }
+        // the outer query only sees the unqualified column names of the subquery
+        Assert.isTrue(COLUMN_PATTERN.matcher(column).matches(), "Illegal sort property: " + property);
+        return column;
+    }
+    
+    /**
+     * Get the properties of the keys, the identifier property is the last one
+     * @return key properties
+     */
+    public List<String> getKeyProperties() {
+        return keyProperties;
+    }
+
+    @Override
+    protected String statementId(String namespace) {
+        // the same original sql is paged with different sorts and sizes
+        return new StringBuilder(originalStatementId).append("-keyset-").append(this.getName())
+                .append("-").append(sql.hashCode()).toString();
+    }
+
+    /**
+     * Create a {@code SELECT * FROM (:originalSql) WHERE (:keys) > (?, ?) ORDER BY :keys LIMIT :limit} statement.
+     *
+     * @return the statement as a {@link String}. Guaranteed to be not {@literal null}.
+     */
+    @Override
+    public String renderSql(RenderContext renderContext, TableInfo tableInfo) {
+        return sql;
+    }
+    
+    @Override
+    protected SqlSource createSqlSource(Configuration config, String sqlScript) {
+        List<ParameterMapping> finalParameterMappings = new ArrayList<>(this.parameterMappings);
+        for (Integer keyIndex : keyParameters) {
+            finalParameterMappings.add(new ParameterMapping.Builder(config, PARAM_KEY_PREFIX + keyIndex, Object.class).build());
+        }
+        return new StaticSqlSource(config, sqlScript, finalParameterMappings);
+    }
+
+    @Override
+    protected void configureBuilder(Configuration config, String namespace, Builder builder) {
+        builder.resultMaps(resultMaps);
+    }
+    
+}
@@ -1,8 +1,11 @@
 package org.springframework.data.mybatis.statement.page;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 
 import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.mapping.MappedStatement.Builder;
@@ -31,16 +34,36 @@ public class OrderByAndLimit extends AbstractStatement {
     public static final String PARAM_KEY_OFFSET = "offset";
     public static final String PARAM_KEY_SIZE = "size";
     
+    private static final Pattern COLUMN_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    
     private final String originalStatementId;
     private final String originalSql;
     private final List<ParameterMapping> parameterMappings;
     private final List<ResultMap> resultMaps;
     private final Pageable pageable;
     private final Dialect dialect;
+    private final Function<String, String> idColumns;
     
     public OrderByAndLimit(String originalStatementId, String originalSql, 
             List<ParameterMapping> parameterMappings, List<ResultMap> resultMaps,
             Pageable pageable, Dialect dialect) {
+        this(originalStatementId, originalSql, parameterMappings, resultMaps, pageable, dialect, null);
+    }
+    
+    /**
+     * Creates a new {@link OrderByAndLimit}
+     * @param originalStatementId id of the select statement
+     * @param originalSql sql of the select statement
+     * @param parameterMappings parameter mappings of the select statement
+     * @param resultMaps result maps of the select statement
+     * @param pageable the page to read
+     * @param dialect sql dialect
+     * @param idColumns gets the id column of a table (in lower case), if not {@literal null} a deferred join is 
+     * rendered when possible: the ids of the page are selected first, then the full rows are joined on the ids
+     */
+    public OrderByAndLimit(String originalStatementId, String originalSql, 
+            List<ParameterMapping> parameterMappings, List<ResultMap> resultMaps,
+            Pageable pageable, Dialect dialect, Function<String, String> idColumns) {
         super(statementName(originalSql), SqlCommandType.SELECT);
         this.originalStatementId = originalStatementId;
         this.originalSql = originalSql;
@@ -48,6 +71,7 @@ public class OrderByAndLimit extends AbstractStatement {
         this.resultMaps = resultMaps;
         this.pageable = pageable;
         this.dialect = dialect;
+        this.idColumns = idColumns;
     }
     
     private static String statementName(String originalSql) {
@@ -58,23 +82,53 @@ public class OrderByAndLimit extends AbstractStatement {
     protected String statementId(String namespace) {
         return new StringBuilder(originalStatementId).append("-pageable-").append(this.getName()).toString();
     }
+    
+    @Override
+    protected Object cacheKey() {
+        return Arrays.asList("pageable", originalStatementId, originalSql, pageable.getSort(), idColumns != null);
+    }
 
     /**
-     * Create a {@code :originalSql [ORDER BY ...] LIMIT ?, ?} statement.
+     * Create a {@code :originalSql [ORDER BY ...] LIMIT ?, ?} statement, 
+     * or a deferred join statement if it is enabled and possible.
      *
      * @return the statement as a {@link String}. Guaranteed to be not {@literal null}.
      */
     @Override
     public String renderSql(RenderContext renderContext, TableInfo tableInfo) {
+        String limit = dialect.limit().getLimitOffset(0, 0).replace("0", "?");
+        if (idColumns != null) {
+            String deferredSql = renderDeferredJoin(limit);
+            if (deferredSql != null) {
+                return deferredSql;
+            }
+        }
         StringBuilder sqlBuf = new StringBuilder(originalSql);
         String sortFragment = buildOrderByFragment(pageable.getSort());
         if (sortFragment.length() > 0) {
             sqlBuf.append(" ORDER BY ").append(sortFragment);
         }
-        String zeroLimit = dialect.limit().getLimitOffset(0, 0);
-        sqlBuf.append(" ").append(zeroLimit.replace("0", "?"));
+        sqlBuf.append(" ").append(limit);
         return sqlBuf.toString();
     }
+    
+    /**
+     * Create a deferred join statement, the sort properties must be columns of the base table of the original sql.
+     * 
+     * @return the statement, or {@literal null} if the original sql can not be rewritten as a deferred join
+     * @see SelectSqlRewriter#deferredJoin(String, java.util.function.BiPredicate, Function, List, String)
+     */
+    private String renderDeferredJoin(String limit) {
+        List<String> sortColumns = new ArrayList<>();
+        for (Order order : pageable.getSort()) {
+            if (!COLUMN_NAME.matcher(order.getProperty()).matches()) {
+                return null;
+            }
+            sortColumns.add(order.getProperty() + " " + order.getDirection().name());
+        }
+        return SelectSqlRewriter.deferredJoin(originalSql, 
+                (table, column) -> column.equalsIgnoreCase(idColumns.apply(table)), idColumns, sortColumns, limit);
+    }
 
     /**
      * Construct "order by" sql fragment for {@link Sort}
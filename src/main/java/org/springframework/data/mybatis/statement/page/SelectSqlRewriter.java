@@ -0,0 +1,566 @@
+package org.springframework.data.mybatis.statement.page;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Rewrite a select statement without wrapping it in a subquery.
+ * <p>
+ * A {@code LEFT JOIN} is pruned from the count or id query if it joins on a unique key of the joined table,
+ * and the joined table is not referenced by the {@code WHERE} clause or any other join. A statement is only 
+ * rewritten when it can be proved that the result and the parameter bindings do not change, 
+ * otherwise {@literal null} is returned.
+ *
+ * @see Count
+ * @see OrderByAndLimit
+ */
+final class SelectSqlRewriter {
+
+    private static final Set<String> UNSUPPORTED_CLAUSES = new HashSet<>(Arrays.asList(
+            "WITH", "DISTINCT", "UNIQUE", "TOP", "INTO", "GROUP", "HAVING", "UNION", "INTERSECT", "EXCEPT", "MINUS",
+            "LIMIT", "OFFSET", "FETCH", "FOR", "WINDOW", "QUALIFY", "CONNECT", "START", "LOCK"));
+
+    private static final Set<String> JOIN_KEYWORDS = new HashSet<>(Arrays.asList(
+            "JOIN", "LEFT", "RIGHT", "FULL", "INNER", "OUTER", "CROSS", "NATURAL", "STRAIGHT_JOIN"));
+
+    private static final Set<String> CONDITION_KEYWORDS = new HashSet<>(Arrays.asList(
+            "AND", "OR", "NOT", "NULL", "IS", "IN", "LIKE", "ILIKE", "REGEXP", "BETWEEN", "EXISTS", "TRUE", "FALSE",
+            "UNKNOWN", "CASE", "WHEN", "THEN", "ELSE", "END", "ESCAPE", "ANY", "ALL", "SOME", "INTERVAL",
+            "DATE", "TIME", "TIMESTAMP"));
+
+    private enum TokenType {
+        WORD, QUOTED, LITERAL, PARAMETER, SYMBOL
+    }
+
+    private static final class Token {
+
+        private final TokenType type;
+        private final String text;
+        private final int start;
+        private final int depth;
+
+        Token(TokenType type, String text, int start, int depth) {
+            this.type = type;
+            this.text = text;
+            this.start = start;
+            this.depth = depth;
+        }
+
+        boolean isKeyword(String keyword) {
+            return type == TokenType.WORD && text.equalsIgnoreCase(keyword);
+        }
+
+        boolean isSymbol(char symbol) {
+            return type == TokenType.SYMBOL && text.charAt(0) == symbol;
+        }
+
+        boolean isIdentifier() {
+            return type == TokenType.WORD || type == TokenType.QUOTED;
+        }
+
+        String name() {
+            String name = type == TokenType.QUOTED ? text.substring(1, text.length() - 1) : text;
+            return name.toLowerCase(Locale.US);
+        }
+
+    }
+
+    private static final class Join {
+
+        private final int start;
+        private int end;
+        private String alias;
+        private boolean prunable;
+
+        Join(int start) {
+            this.start = start;
+        }
+
+    }
+
+    /**
+     * A select statement split into clauses, the {@code ORDER BY} clause is excluded.
+     */
+    private static final class Select {
+
+        private final String sql;
+        private final List<Token> tokens;
+        private final int from;
+        private final int where;
+        private final int end;
+        private final boolean ordered;
+        private final List<Join> joins;
+
+        Select(String sql, List<Token> tokens, int from, int where, int end, boolean ordered, List<Join> joins) {
+            this.sql = sql;
+            this.tokens = tokens;
+            this.from = from;
+            this.where = where;
+            this.end = end;
+            this.ordered = ordered;
+            this.joins = joins;
+        }
+
+        int offset(int index) {
+            return index < tokens.size() ? tokens.get(index).start : sql.length();
+        }
+
+        int fromEnd() {
+            return where >= 0 ? where : end;
+        }
+
+        int baseTableEnd() {
+            return joins.isEmpty() ? fromEnd() : joins.get(0).start;
+        }
+
+    }
+
+    private SelectSqlRewriter() {
+    }
+
+    /**
+     * Rewrite a select statement into a count statement.
+     * @param sql the select statement
+     * @param uniqueKey tests whether a column of a table (both in lower case) is a unique key
+     * @return the count statement, or {@literal null} if the statement can not be rewritten safely
+     */
+    static String count(String sql, BiPredicate<String, String> uniqueKey) {
+        Select select = parse(sql, uniqueKey);
+        if (select == null) {
+            return null;
+        }
+        StringBuilder countSql = new StringBuilder("SELECT COUNT(*) ");
+        int position = select.offset(select.from);
+        for (Join join : select.joins) {
+            if (join.prunable) {
+                countSql.append(sql, position, select.offset(join.start));
+                position = select.offset(join.end);
+            }
+        }
+        countSql.append(sql, position, select.offset(select.end));
+        return countSql.toString().trim();
+    }
+
+    /**
+     * Rewrite a select statement into a deferred join: the ids of the page are selected from the base table
+     * with the order and limit first, then the full rows are joined on the ids.
+     * <pre>
+     * SELECT :selectList FROM :table :alias
+     *   INNER JOIN (SELECT :alias.:id FROM :table :alias WHERE ... ORDER BY ... :limit) deferred_page
+     *   ON :alias.:id = deferred_page.:id :joins ORDER BY ...
+     * </pre>
+     * It is only possible if all joins can be pruned from the id query, and all sort properties are 
+     * unqualified columns of the base table.
+     * @param sql the select statement
+     * @param uniqueKey tests whether a column of a table (both in lower case) is a unique key
+     * @param idColumns gets the id column of a table (in lower case), or {@literal null} if unknown
+     * @param sortColumns the columns to order by with their directions, e.g. {@code name DESC}
+     * @param limit the limit clause
+     * @return the deferred join statement, or {@literal null} if the statement can not be rewritten safely
+     */
+    static String deferredJoin(String sql, BiPredicate<String, String> uniqueKey, Function<String, String> idColumns,
+            List<String> sortColumns, String limit) {
+        Select select = parse(sql, uniqueKey);
+        if (select == null || select.ordered || select.joins.stream().anyMatch(join -> !join.prunable)) {
+            return null;
+        }
+        List<Token> tokens = select.tokens;
+        for (int i = 1; i < select.from; i++) {
+            if (tokens.get(i).isSymbol('*') && !tokens.get(i - 1).isSymbol('.')) {
+                // the id column of the joined page would be selected too
+                return null;
+            }
+        }
+        // the base table must be "table [[AS] alias]"
+        int i = select.from + 1;
+        int baseTableEnd = select.baseTableEnd();
+        if (i >= baseTableEnd || !tokens.get(i).isIdentifier()) {
+            return null;
+        }
+        Token table = tokens.get(i++);
+        while (i + 1 < baseTableEnd && tokens.get(i).isSymbol('.') && tokens.get(i + 1).isIdentifier()) {
+            table = tokens.get(i + 1);
+            i += 2;
+        }
+        Token alias = table;
+        if (i < baseTableEnd && tokens.get(i).isKeyword("AS")) {
+            i++;
+        }
+        if (i < baseTableEnd && tokens.get(i).isIdentifier()) {
+            alias = tokens.get(i++);
+        }
+        String idColumn = idColumns.apply(table.name());
+        if (i != baseTableEnd || idColumn == null) {
+            return null;
+        }
+        String qualifier = alias.text + ".";
+        String orderBy = "";
+        if (!sortColumns.isEmpty()) {
+            orderBy = " ORDER BY " + qualifier + String.join(", " + qualifier, sortColumns);
+        }
+        String baseTable = sql.substring(select.offset(select.from + 1), select.offset(baseTableEnd)).trim();
+        StringBuilder deferredSql = new StringBuilder(sql.substring(0, select.offset(baseTableEnd)).trim())
+                .append(" INNER JOIN (SELECT ").append(qualifier).append(idColumn)
+                .append(" FROM ").append(baseTable);
+        if (select.where >= 0) {
+            deferredSql.append(' ').append(sql, select.offset(select.where), select.offset(select.end));
+        }
+        deferredSql.append(orderBy).append(' ').append(limit).append(") deferred_page ON ")
+                .append(qualifier).append(idColumn).append(" = deferred_page.").append(idColumn);
+        if (!select.joins.isEmpty()) {
+            deferredSql.append(' ').append(sql, select.offset(select.joins.get(0).start), select.offset(select.fromEnd()));
+        }
+        return deferredSql.toString().trim() + orderBy;
+    }
+
+    /**
+     * Find a column name that is selected more than once by the select list, such a statement can not be
+     * wrapped in a subquery. Two wildcards, e.g. {@code b.*, p.*}, are taken as duplicates since the tables
+     * usually share an {@code id} column.
+     * @param sql the select statement
+     * @return the duplicate column name in lower case, {@code *} for two wildcards, or {@literal null} if no
+     * duplicate is found
+     */
+    static String duplicateColumn(String sql) {
+        List<Token> tokens = tokenize(sql);
+        if (tokens == null || tokens.isEmpty() || !tokens.get(0).isKeyword("SELECT")) {
+            return null;
+        }
+        Set<String> columns = new HashSet<>();
+        boolean wildcard = false;
+        int start = 1;
+        for (int i = 1; i <= tokens.size(); i++) {
+            Token token = i < tokens.size() ? tokens.get(i) : null;
+            boolean itemEnd = token == null || token.depth == 0 && (token.isSymbol(',') || token.isKeyword("FROM"));
+            if (!itemEnd) {
+                continue;
+            }
+            String column = selectedColumn(tokens.subList(start, i));
+            if ("*".equals(column)) {
+                if (wildcard) {
+                    return column;
+                }
+                wildcard = true;
+            } else if (column != null && !columns.add(column)) {
+                return column;
+            }
+            if (token == null || token.isKeyword("FROM")) {
+                break;
+            }
+            start = i + 1;
+        }
+        return null;
+    }
+
+    /**
+     * Get the name of a select list item: {@code *} for a wildcard, the alias, or the name of a (qualified) column.
+     * @return the name, or {@literal null} if it is an expression without alias
+     */
+    private static String selectedColumn(List<Token> item) {
+        int size = item.size();
+        if (size == 0) {
+            return null;
+        }
+        Token last = item.get(size - 1);
+        if (last.isSymbol('*')) {
+            return "*";
+        }
+        if (!last.isIdentifier()) {
+            return null;
+        }
+        if (size == 1) {
+            return last.name();
+        }
+        Token previous = item.get(size - 2);
+        if (previous.isSymbol('.') || previous.isKeyword("AS") || previous.isSymbol(')')
+                || previous.type == TokenType.LITERAL || previous.isIdentifier() && size == 2) {
+            return last.name();
+        }
+        return null;
+    }
+
+    /**
+     * Split a select statement into clauses.
+     * @return the statement, or {@literal null} if it is not supported
+     */
+    private static Select parse(String sql, BiPredicate<String, String> uniqueKey) {
+        List<Token> tokens = tokenize(sql);
+        if (tokens == null || tokens.isEmpty() || !tokens.get(0).isKeyword("SELECT")) {
+            return null;
+        }
+        int from = -1;
+        int where = -1;
+        int orderBy = -1;
+        for (int i = 1; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (token.depth > 0) {
+                continue;
+            }
+            if (token.type == TokenType.WORD && UNSUPPORTED_CLAUSES.contains(token.text.toUpperCase(Locale.US))) {
+                return null;
+            }
+            if (from < 0) {
+                // aggregates, window functions and parameters in the select list change the count
+                if (token.isSymbol('(') || token.type == TokenType.PARAMETER) {
+                    return null;
+                }
+                if (token.isKeyword("FROM")) {
+                    from = i;
+                }
+            } else if (token.isKeyword("WHERE") && where < 0 && orderBy < 0) {
+                where = i;
+            } else if (token.isKeyword("ORDER") && orderBy < 0) {
+                if (i + 1 == tokens.size() || !tokens.get(i + 1).isKeyword("BY")) {
+                    return null;
+                }
+                orderBy = i;
+            }
+        }
+        if (from < 0) {
+            return null;
+        }
+        int end = tokens.size();
+        if (orderBy >= 0) {
+            for (int i = orderBy; i < end; i++) {
+                if (tokens.get(i).type == TokenType.PARAMETER) {
+                    return null;
+                }
+            }
+            end = orderBy;
+        }
+        int fromEnd = where >= 0 ? where : end;
+        List<Join> joins = joins(tokens, from + 1, fromEnd, uniqueKey);
+        pruneJoins(tokens, joins, where, end);
+        return new Select(sql, tokens, from, where, end, orderBy >= 0, joins);
+    }
+
+    /**
+     * Split the from clause into joins, and find the left joins on a unique key of the joined table.
+     */
+    private static List<Join> joins(List<Token> tokens, int start, int end, BiPredicate<String, String> uniqueKey) {
+        List<Join> joins = new ArrayList<>();
+        Join join = null;
+        for (int i = start; i < end; i++) {
+            Token token = tokens.get(i);
+            boolean joinStart = token.depth == 0 && (token.isSymbol(',') || token.type == TokenType.WORD
+                    && JOIN_KEYWORDS.contains(token.text.toUpperCase(Locale.US))
+                    && (i == start || !JOIN_KEYWORDS.contains(tokens.get(i - 1).text.toUpperCase(Locale.US))));
+            if (joinStart) {
+                if (join != null) {
+                    join.end = i;
+                }
+                join = new Join(i);
+                joins.add(join);
+            }
+        }
+        if (join != null) {
+            join.end = end;
+        }
+        for (Join each : joins) {
+            inspectLeftJoin(tokens, each, uniqueKey);
+        }
+        return joins;
+    }
+
+    /**
+     * Mark a {@code LEFT [OUTER] JOIN table [[AS] alias] ON alias.key = other.column} as prunable
+     * when the key is unique, at most one row is joined to each row then.
+     */
+    private static void inspectLeftJoin(List<Token> tokens, Join join, BiPredicate<String, String> uniqueKey) {
+        int i = join.start;
+        if (join.end - join.start < 4 || !tokens.get(i++).isKeyword("LEFT")) {
+            return;
+        }
+        if (tokens.get(i).isKeyword("OUTER")) {
+            i++;
+        }
+        if (!tokens.get(i++).isKeyword("JOIN") || i >= join.end || !tokens.get(i).isIdentifier()) {
+            return;
+        }
+        String table = tokens.get(i++).name();
+        while (i + 1 < join.end && tokens.get(i).isSymbol('.') && tokens.get(i + 1).isIdentifier()) {
+            // schema qualified name
+            table = tokens.get(i + 1).name();
+            i += 2;
+        }
+        String alias = table;
+        if (i < join.end && tokens.get(i).isKeyword("AS")) {
+            i++;
+        }
+        if (i < join.end && tokens.get(i).isIdentifier() && !tokens.get(i).isKeyword("ON")) {
+            alias = tokens.get(i++).name();
+        }
+        if (i + 8 != join.end || !tokens.get(i++).isKeyword("ON")) {
+            return;
+        }
+        List<Token> condition = tokens.subList(i, join.end);
+        if (!condition.get(3).isSymbol('=') || !isQualifiedColumn(condition, 0) || !isQualifiedColumn(condition, 4)) {
+            return;
+        }
+        String left = condition.get(0).name();
+        String right = condition.get(4).name();
+        String key;
+        if (left.equals(alias) && !right.equals(alias)) {
+            key = condition.get(2).name();
+        } else if (right.equals(alias) && !left.equals(alias)) {
+            key = condition.get(6).name();
+        } else {
+            return;
+        }
+        if (uniqueKey.test(table, key)) {
+            join.alias = alias;
+            join.prunable = true;
+        }
+    }
+
+    private static boolean isQualifiedColumn(List<Token> tokens, int index) {
+        return tokens.get(index).isIdentifier() && tokens.get(index + 1).isSymbol('.')
+                && tokens.get(index + 2).isIdentifier();
+    }
+
+    /**
+     * Keep the prunable joins whose table is not referenced by the where clause or the remaining joins,
+     * the last join is inspected first since it may reference a join before it.
+     */
+    private static void pruneJoins(List<Token> tokens, List<Join> joins, int where, int end) {
+        if (joins.stream().noneMatch(join -> join.prunable)) {
+            return;
+        }
+        if (where >= 0 && hasUnqualifiedColumn(tokens, where + 1, end)) {
+            // an unqualified column may belong to any joined table
+            joins.forEach(join -> join.prunable = false);
+            return;
+        }
+        for (Join join : joins) {
+            if (hasUnqualifiedColumn(tokens, conditionStart(tokens, join), join.end)) {
+                joins.forEach(each -> each.prunable = false);
+                return;
+            }
+        }
+        for (int j = joins.size() - 1; j >= 0; j--) {
+            Join join = joins.get(j);
+            if (!join.prunable) {
+                continue;
+            }
+            boolean referenced = where >= 0 && isReferenced(tokens, where + 1, end, join.alias);
+            for (int k = 0; k < joins.size() && !referenced; k++) {
+                Join other = joins.get(k);
+                if (other != join && !(k > j && other.prunable)) {
+                    referenced = isReferenced(tokens, other.start, other.end, join.alias);
+                }
+            }
+            join.prunable = !referenced;
+        }
+    }
+
+    private static int conditionStart(List<Token> tokens, Join join) {
+        for (int i = join.start; i < join.end; i++) {
+            if (tokens.get(i).isKeyword("ON") || tokens.get(i).isKeyword("USING")) {
+                return i + 1;
+            }
+        }
+        return join.end;
+    }
+
+    private static boolean isReferenced(List<Token> tokens, int start, int end, String alias) {
+        for (int i = start; i + 1 < end; i++) {
+            if (tokens.get(i).isIdentifier() && tokens.get(i + 1).isSymbol('.') && tokens.get(i).name().equals(alias)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasUnqualifiedColumn(List<Token> tokens, int start, int end) {
+        for (int i = start; i < end; i++) {
+            Token token = tokens.get(i);
+            if (!token.isIdentifier()) {
+                continue;
+            }
+            boolean qualified = i > start && tokens.get(i - 1).isSymbol('.')
+                    || i + 1 < end && (tokens.get(i + 1).isSymbol('.') || tokens.get(i + 1).isSymbol('('));
+            if (!qualified && (token.type == TokenType.QUOTED
+                    || !CONDITION_KEYWORDS.contains(token.text.toUpperCase(Locale.US)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Split the sql into tokens.
+     * @return the tokens, or {@literal null} if the sql contains comments or unbalanced parentheses
+     */
+    private static List<Token> tokenize(String sql) {
+        List<Token> tokens = new ArrayList<>();
+        int depth = 0;
+        int i = 0;
+        int length = sql.length();
+        while (i < length) {
+            char c = sql.charAt(i);
+            int start = i;
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-'
+                    || c == '/' && i + 1 < length && sql.charAt(i + 1) == '*' || c == '#') {
+                return null;
+            }
+            if (c == '\'' || c == '"' || c == '`' || c == '[') {
+                char close = c == '[' ? ']' : c;
+                i++;
+                while (i < length) {
+                    if (sql.charAt(i) == close) {
+                        if (close != ']' && i + 1 < length && sql.charAt(i + 1) == close) {
+                            // escaped quote
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                if (i >= length) {
+                    return null;
+                }
+                i++;
+                TokenType type = c == '\'' ? TokenType.LITERAL : TokenType.QUOTED;
+                tokens.add(new Token(type, sql.substring(start, i), start, depth));
+            } else if (Character.isLetter(c) || c == '_' || c == '$') {
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_' || sql.charAt(i) == '$')) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.WORD, sql.substring(start, i), start, depth));
+            } else if (Character.isDigit(c)) {
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.LITERAL, sql.substring(start, i), start, depth));
+            } else if (c == '?') {
+                i++;
+                tokens.add(new Token(TokenType.PARAMETER, "?", start, depth));
+            } else {
+                i++;
+                if (c == ')') {
+                    depth--;
+                    if (depth < 0) {
+                        return null;
+                    }
+                }
+                tokens.add(new Token(TokenType.SYMBOL, String.valueOf(c), start, depth));
+                if (c == '(') {
+                    depth++;
+                }
+            }
+        }
+        return depth == 0 ? tokens : null;
+    }
+
+}
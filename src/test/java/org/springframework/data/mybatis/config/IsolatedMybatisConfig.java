@@ -0,0 +1,38 @@
+package org.springframework.data.mybatis.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.mybatis.repository.config.DefaultMybatisConfiguration;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseFactory;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * A context of its own database populated by data.sql, subclasses enable the repositories and options
+ * which {@link MybatisConfig} does not.
+ */
+@Configuration(proxyBeanMethods = false)
+public abstract class IsolatedMybatisConfig extends DefaultMybatisConfiguration {
+
+    @Bean
+    public EmbeddedDatabase dataSource() {
+        EmbeddedDatabaseFactory databaseFactory = new EmbeddedDatabaseFactory();
+        databaseFactory.setGenerateUniqueDatabaseName(true);
+        databaseFactory.setDatabaseType(EmbeddedDatabaseType.H2);
+        databaseFactory.setDatabasePopulator(
+                new ResourceDatabasePopulator(false, false, "UTF-8", new ClassPathResource("data.sql")));
+        return databaseFactory.getDatabase();
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(DataSource dataSource) {
+        return new DataSourceTransactionManager(dataSource);
+    }
+
+}
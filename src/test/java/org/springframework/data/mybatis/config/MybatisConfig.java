@@ -8,6 +8,8 @@ import org.springframework.context.annotation.Import;
 import org.springframework.data.mybatis.dao.BookDao;
 import org.springframework.data.mybatis.repository.config.DefaultMybatisConfiguration;
 import org.springframework.data.mybatis.repository.config.EnableMybatisRepositories;
+import org.springframework.data.mybatis.repository.query.QueryCacheInterceptor;
+import org.springframework.data.mybatis.repository.support.MybatisRepositoryOptions;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.transaction.PlatformTransactionManager;
 
@@ -21,4 +23,9 @@ public class MybatisConfig extends DefaultMybatisConfiguration {
         return new DataSourceTransactionManager(dataSource);
     }
     
+    @Override
+    protected void configureRepositoryOptions(MybatisRepositoryOptions options) {
+        options.setQueryCacheSize(QueryCacheInterceptor.DEFAULT_MAX_SIZE);
+    }
+    
 }
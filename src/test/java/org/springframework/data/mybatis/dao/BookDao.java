@@ -1,5 +1,7 @@
 package org.springframework.data.mybatis.dao;
 
+import java.util.List;
+
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.ResultMap;
 import org.apache.ibatis.annotations.ResultType;
@@ -11,6 +13,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.mybatis.domain.Book;
+import org.springframework.data.mybatis.repository.CachedResult;
+import org.springframework.data.mybatis.repository.DeferredJoin;
 import org.springframework.data.mybatis.repository.MybatisRepository;
 import org.springframework.data.mybatis.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
@@ -47,6 +51,7 @@ public interface BookDao extends MybatisRepository<Book, Integer> {
     int updateEbook(@Param("bookId") Integer bookId, @Param("ebookName") String ebookName);
     
     @Query
+    @CachedResult(tables = "lib_publisher")
     @Select("select o.*, p.name as publisher_name, p.place as publisher_place from lib_book o"
             + " left join lib_publisher p on o.publisher_id = p.id")
     @ResultMap(DEFAULT_RESULTMAP)
@@ -57,5 +62,17 @@ public interface BookDao extends MybatisRepository<Book, Integer> {
             + " left join lib_publisher p on o.publisher_id = p.id where o.isbn like concat('%',#{keyword},'%')")
     @ResultMap(DEFAULT_RESULTMAP)
     Page<Book> findByIsbnLikeWithPageableFetchPublisher(@Param("keyword") String keyword, Pageable pageable);
+    
+    @Query
+    @DeferredJoin
+    @Select("select o.*, p.name as publisher_name, p.place as publisher_place from lib_book o"
+            + " left join lib_publisher p on o.publisher_id = p.id where o.isbn like concat('%',#{keyword},'%')")
+    @ResultMap(DEFAULT_RESULTMAP)
+    Page<Book> findByIsbnLikeWithDeferredJoin(@Param("keyword") String keyword, Pageable pageable);
+    
+    @Query
+    @Select("select o.*, p.* from lib_book o left join lib_publisher p on o.publisher_id = p.id")
+    @ResultMap(DEFAULT_RESULTMAP)
+    List<Book> findWithPageableSelectAllPublisherColumns(Pageable pageable);
 
 }
@@ -1,16 +1,22 @@
 package org.springframework.data.mybatis.dao;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.ResultMap;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.ResultSetType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mybatis.domain.Publisher;
+import org.springframework.data.mybatis.repository.DynamicUpdate;
 import org.springframework.data.mybatis.repository.MybatisRepository;
 import org.springframework.data.mybatis.repository.Query;
 
+@DynamicUpdate
 public interface PublisherDao extends MybatisRepository<Publisher, Integer> {
     
     @Query
@@ -28,4 +34,20 @@ public interface PublisherDao extends MybatisRepository<Publisher, Integer> {
     @ResultMap(DEFAULT_RESULTMAP)
     Page<Publisher> findByPlaceContaining(@Param("placeKeyword") String placeKeyword, Pageable pageable);
     
+    @Query
+    @Select("select o.* from lib_publisher o where o.place like concat('%',#{placeKeyword},'%')")
+    @ResultMap(DEFAULT_RESULTMAP)
+    Slice<Publisher> findSliceByPlaceContaining(@Param("placeKeyword") String placeKeyword, Pageable pageable);
+    
+    @Query
+    @Select("select o.* from lib_publisher o where #{slice} or o.place = #{place}")
+    @ResultMap(DEFAULT_RESULTMAP)
+    Page<Publisher> findByPlaceOrAll(@Param("place") String place, @Param("slice") boolean all, Pageable pageable);
+    
+    @Query
+    @Select("select o.* from lib_publisher o where o.place = #{place}")
+    @Options(fetchSize = 100, resultSetType = ResultSetType.FORWARD_ONLY)
+    @ResultMap(DEFAULT_RESULTMAP)
+    Stream<Publisher> streamByPlace(String place);
+    
 }
@@ -1,5 +1,6 @@
 package org.springframework.data.mybatis.domain;
 
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Table;
 
 @Table("lib_publisher")
@@ -7,6 +8,8 @@ public class Publisher extends IntId {
 	
     private String name;
     private String place;
+    @Version
+    private Integer version;
     
     public Publisher() {}
     
@@ -35,4 +38,12 @@ public class Publisher extends IntId {
 		this.place = place;
 	}
 
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
 }
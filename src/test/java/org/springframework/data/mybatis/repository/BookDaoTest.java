@@ -1,16 +1,35 @@
 package org.springframework.data.mybatis.repository;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import javax.sql.DataSource;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mybatis.spring.SqlSessionTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.mybatis.config.MybatisConfig;
 import org.springframework.data.mybatis.dao.BookDao;
 import org.springframework.data.mybatis.domain.Book;
+import org.springframework.data.mybatis.domain.KeysetPosition;
 import org.springframework.data.mybatis.domain.Publisher;
+import org.springframework.data.mybatis.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.SqlConfig;
@@ -24,6 +43,12 @@ public class BookDaoTest {
     @Autowired
     private BookDao bookDao;
     
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private SqlSessionTemplate sqlSessionTemplate;
+    
     @Test
     public void testFindById() {
         Optional<Book> bookOp = bookDao.findById(1);
@@ -35,4 +60,90 @@ public class BookDaoTest {
         assertTrue(publisher.getId().equals(1));
     }
     
+    @Test
+    public void testCountWithPrunedJoin() {
+        // the count statement drops the left join to lib_publisher on its id
+        Page<Book> pageData = bookDao.findWithPageableFetchPublisher(PageRequest.of(1, 5));
+        assertEquals(12L, pageData.getTotalElements());
+        assertEquals(5, pageData.getNumberOfElements());
+        
+        pageData = bookDao.findByIsbnLikeWithPageableFetchPublisher("9", PageRequest.of(0, 1));
+        assertEquals(pageData.getTotalElements(), bookDao.findByIsbnLikeWithPageableFetchPublisher("9", 
+                PageRequest.of(0, 100)).getNumberOfElements());
+    }
+    
+    @Test
+    public void testDeferredJoin() {
+        Pageable pageable = PageRequest.of(2, 3, Sort.by(Direction.DESC, "last_update").and(Sort.by("id")));
+        Page<Book> expected = bookDao.findByIsbnLikeWithPageableFetchPublisher("", pageable);
+        Page<Book> pageData = bookDao.findByIsbnLikeWithDeferredJoin("", pageable);
+        assertEquals(expected.getTotalElements(), pageData.getTotalElements());
+        assertEquals(expected.getNumberOfElements(), pageData.getNumberOfElements());
+        for (int i = 0; i < pageData.getNumberOfElements(); i++) {
+            Book book = pageData.getContent().get(i);
+            assertEquals(expected.getContent().get(i).getId(), book.getId());
+            assertEquals(expected.getContent().get(i).getName(), book.getName());
+        }
+    }
+    
+    private Window<Book> findWindow(String statement, KeysetPosition position, Pageable pageable) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("keyword", "");
+        params.put("position", position);
+        params.put("pageable", pageable);
+        return sqlSessionTemplate.selectOne(BookDao.class.getName() + "." + statement, params);
+    }
+    
+    @Test
+    public void testKeysetPaginationOfJoinedSelect() {
+        List<Integer> ids = new ArrayList<>();
+        KeysetPosition position = KeysetPosition.initial();
+        Window<Book> window;
+        do {
+            window = findWindow("findByIsbnLikeWithPageableFetchPublisher", position, PageRequest.of(0, 5, Sort.by("name")));
+            window.forEach(book -> ids.add(book.getId()));
+            position = window.nextPosition();
+        } while (window.hasNext());
+        assertEquals(12, ids.size());
+        assertEquals(12L, ids.stream().distinct().count());
+        
+        // the id columns of both tables would be ambiguous in the keyset subquery
+        try {
+            findWindow("findWithPageableSelectAllPublisherColumns", KeysetPosition.initial(), PageRequest.of(0, 5));
+            fail("Duplicate columns must be rejected.");
+        } catch (RuntimeException e) {
+            assertTrue(NestedExceptionUtils.getMostSpecificCause(e) instanceof IllegalArgumentException);
+        }
+    }
+    
+    @Test
+    public void testCachedResult() {
+        Pageable pageable = PageRequest.of(0, 20);
+        Page<Book> pageData = bookDao.findWithPageableFetchPublisher(pageable);
+        String name = pageData.getContent().get(0).getName();
+        // a row changed behind the repository is not read again
+        new JdbcTemplate(dataSource).update("update lib_book set name = 'jdbc-name' where id = ?", pageData.getContent().get(0).getId());
+        Page<Book> cached = bookDao.findWithPageableFetchPublisher(pageable);
+        assertEquals(name, cached.getContent().get(0).getName());
+        assertEquals(pageData.getTotalElements(), cached.getTotalElements());
+        
+        // each hit gets its own copy, changes of one caller are not seen by others
+        assertNotSame(pageData.getContent().get(0), cached.getContent().get(0));
+        cached.getContent().get(0).setName("changed-name");
+        cached.getContent().get(0).getPublisher().setName("changed-name");
+        Book book = bookDao.findWithPageableFetchPublisher(pageable).getContent().get(0);
+        assertEquals(name, book.getName());
+        assertEquals(pageData.getContent().get(0).getPublisher().getName(), book.getPublisher().getName());
+        
+        // the insert invalidates the cached pages, and the delete invalidates them again for other tests
+        book = bookDao.save(new Book("cached-result", "author", new Publisher(1)));
+        try {
+            pageData = bookDao.findWithPageableFetchPublisher(pageable);
+            assertEquals(cached.getTotalElements() + 1, pageData.getTotalElements());
+            assertEquals("jdbc-name", pageData.getContent().get(0).getName());
+        } finally {
+            bookDao.delete(book);
+        }
+    }
+    
 }
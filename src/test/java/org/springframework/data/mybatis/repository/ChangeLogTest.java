@@ -0,0 +1,230 @@
+package org.springframework.data.mybatis.repository;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mybatis.dao.BookDao;
+import org.springframework.data.mybatis.domain.Book;
+import org.springframework.data.mybatis.domain.Publisher;
+import org.springframework.data.mybatis.repository.config.DefaultMybatisConfiguration;
+import org.springframework.data.mybatis.repository.config.EnableMybatisRepositories;
+import org.springframework.data.mybatis.repository.query.QueryCacheInterceptor;
+import org.springframework.data.mybatis.repository.support.ChangeLog;
+import org.springframework.data.mybatis.repository.support.MybatisRepositoryOptions;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseFactory;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class ChangeLogTest {
+
+    /**
+     * A node of the application, all nodes open the same in-memory database by its name.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @EnableMybatisRepositories(basePackageClasses = {BookDao.class})
+    static class NodeConfig extends DefaultMybatisConfiguration {
+
+        @Bean
+        public EmbeddedDatabase dataSource() {
+            EmbeddedDatabaseFactory databaseFactory = new EmbeddedDatabaseFactory();
+            databaseFactory.setDatabaseName("change_log");
+            databaseFactory.setDatabaseType(EmbeddedDatabaseType.H2);
+            databaseFactory.setDatabasePopulator(
+                    new ResourceDatabasePopulator(false, false, "UTF-8", new ClassPathResource("data.sql")));
+            return databaseFactory.getDatabase();
+        }
+
+        @Bean
+        public PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        public ChangeLog changeLog(SqlSessionTemplate sqlSessionTemplate) {
+            ChangeLog changeLog = new ChangeLog(sqlSessionTemplate);
+            changeLog.setPollInterval(0);
+            return changeLog;
+        }
+
+        @Override
+        protected void configureRepositoryOptions(MybatisRepositoryOptions options) {
+            options.setQueryCacheSize(QueryCacheInterceptor.DEFAULT_MAX_SIZE);
+        }
+
+    }
+
+    /**
+     * A node deferring the writes of a transaction to a unit of work.
+     */
+    @Configuration(proxyBeanMethods = false)
+    static class UnitOfWorkNodeConfig extends NodeConfig {
+
+        @Override
+        protected void configureRepositoryOptions(MybatisRepositoryOptions options) {
+            super.configureRepositoryOptions(options);
+            options.setUnitOfWork(true);
+        }
+
+    }
+
+    private AnnotationConfigApplicationContext node1;
+    private AnnotationConfigApplicationContext node2;
+
+    @Before
+    public void startNodes() {
+        node1 = new AnnotationConfigApplicationContext(NodeConfig.class);
+        node2 = new AnnotationConfigApplicationContext(NodeConfig.class);
+    }
+
+    @After
+    public void stopNodes() {
+        node2.close();
+        node1.close();
+    }
+
+    @Test
+    public void testInvalidateCachedResultOfOtherNode() {
+        BookDao bookDao1 = node1.getBean(BookDao.class);
+        BookDao bookDao2 = node2.getBean(BookDao.class);
+        Pageable pageable = PageRequest.of(0, 20);
+        Page<Book> pageData = bookDao2.findWithPageableFetchPublisher(pageable);
+
+        bookDao1.save(new Book("change-log", "author", new Publisher(1)));
+        // the cached result of node 2 is only invalidated when node 2 polls the change log
+        assertEquals(pageData.getTotalElements(), bookDao2.findWithPageableFetchPublisher(pageable).getTotalElements());
+        node2.getBean(ChangeLog.class).poll();
+        assertEquals(pageData.getTotalElements() + 1, bookDao2.findWithPageableFetchPublisher(pageable).getTotalElements());
+    }
+
+    @Test
+    public void testLogGeneratedIdOfDeferredInsert() {
+        try (AnnotationConfigApplicationContext node3 = new AnnotationConfigApplicationContext(UnitOfWorkNodeConfig.class)) {
+            BookDao bookDao = node3.getBean(BookDao.class);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(node3.getBean(DataSource.class));
+            long lastSeq = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(seq), 0) FROM mybatis_change_log", Long.class);
+            Book book = new TransactionTemplate(node3.getBean(PlatformTransactionManager.class))
+                    .execute(status -> bookDao.save(new Book("unit-of-work", "author", new Publisher(1))));
+            // other nodes do not evict all cached entities of the table for an insert
+            assertEquals(Collections.singletonList(book.getId().toString()), jdbcTemplate.queryForList(
+                    "SELECT entity_id FROM mybatis_change_log WHERE seq > ?", String.class, lastSeq));
+        }
+    }
+
+    @Test
+    public void testLogDeferredInsertWithIdOnce() {
+        try (AnnotationConfigApplicationContext node3 = new AnnotationConfigApplicationContext(UnitOfWorkNodeConfig.class)) {
+            BookDao bookDao = node3.getBean(BookDao.class);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(node3.getBean(DataSource.class));
+            long lastSeq = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(seq), 0) FROM mybatis_change_log", Long.class);
+            Book book = new Book("assigned-id", "author", new Publisher(1)) {
+
+                @Override
+                public boolean isNew() {
+                    return true;
+                }
+
+            };
+            book.setId(1000);
+            new TransactionTemplate(node3.getBean(PlatformTransactionManager.class))
+                    .execute(status -> bookDao.save(book));
+            assertEquals(Collections.singletonList("1000"), jdbcTemplate.queryForList(
+                    "SELECT entity_id FROM mybatis_change_log WHERE seq > ?", String.class, lastSeq));
+        }
+    }
+
+    @Test
+    public void testWaitForLowerSequenceOfEmptyChangeLog() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(node1.getBean(DataSource.class));
+        ChangeLog changeLog = node2.getBean(ChangeLog.class);
+        List<String> changed = new ArrayList<>();
+        changeLog.addListener("book", changed::add);
+
+        // the transaction of sequence 1 commits after the transaction of sequence 2
+        String sql = "INSERT INTO mybatis_change_log (seq, table_name, entity_id, node_id) VALUES (?, 'book', ?, 'other')";
+        jdbcTemplate.update(sql, 2L, "2");
+        changeLog.poll();
+        jdbcTemplate.update(sql, 1L, "1");
+        changeLog.poll();
+        assertEquals(Arrays.asList("2", "1"), changed);
+    }
+
+    @Test
+    public void testPurgeRowsPolledByAllNodes() {
+        BookDao bookDao = node1.getBean(BookDao.class);
+        ChangeLog changeLog1 = node1.getBean(ChangeLog.class);
+        ChangeLog changeLog2 = node2.getBean(ChangeLog.class);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(node1.getBean(DataSource.class));
+        ChangeLog node3 = new ChangeLog(node1.getBean(SqlSessionTemplate.class));
+        node3.setPollInterval(0);
+        node3.afterPropertiesSet();
+
+        bookDao.save(new Book("purge-1", "author", new Publisher(1)));
+        bookDao.save(new Book("purge-2", "author", new Publisher(1)));
+        changeLog1.poll();
+        changeLog2.poll();
+        changeLog1.purge();
+        // node 3 has not polled the rows yet
+        assertEquals(2, countRows(jdbcTemplate));
+
+        node3.destroy();
+        changeLog1.purge();
+        // the last row is kept for nodes starting later
+        assertEquals(1, countRows(jdbcTemplate));
+        assertEquals(jdbcTemplate.queryForObject("SELECT MAX(seq) FROM mybatis_change_log", Long.class),
+                jdbcTemplate.queryForObject("SELECT MIN(seq) FROM mybatis_change_log", Long.class));
+    }
+
+    @Test
+    public void testEvictAllAfterNodeTimeout() throws InterruptedException {
+        SqlSessionTemplate sqlSessionTemplate = node1.getBean(SqlSessionTemplate.class);
+        ChangeLog stale = new ChangeLog(sqlSessionTemplate);
+        stale.setPollInterval(0);
+        stale.afterPropertiesSet();
+        List<String> changed = new ArrayList<>();
+        stale.addListener("book", changed::add);
+        ChangeLog changeLog = new ChangeLog(sqlSessionTemplate);
+        changeLog.setPollInterval(0);
+        changeLog.setNodeTimeout(1);
+        changeLog.afterPropertiesSet();
+        try {
+            Thread.sleep(10);
+            changeLog.purge();
+            // the changes missed while the node was removed are purged
+            stale.poll();
+            assertEquals(Collections.singletonList(null), changed);
+            changed.clear();
+            stale.poll();
+            assertEquals(Collections.emptyList(), changed);
+        } finally {
+            changeLog.destroy();
+            stale.destroy();
+        }
+    }
+
+    private static int countRows(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM mybatis_change_log", Integer.class);
+    }
+
+}
@@ -0,0 +1,142 @@
+package org.springframework.data.mybatis.repository;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.mybatis.config.IsolatedMybatisConfig;
+import org.springframework.data.mybatis.domain.Publisher;
+import org.springframework.data.mybatis.repository.config.EnableMybatisRepositories;
+import org.springframework.data.mybatis.repository.support.MybatisRepositoryOptions;
+import org.springframework.data.mybatis.statement.Statement;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class FindByIdBatchTest {
+
+    public interface BatchedPublisherDao extends MybatisRepository<Publisher, Integer> {
+    }
+
+    /**
+     * Records the names of the queried statements.
+     */
+    @Intercepts(@Signature(type = Executor.class, method = "query", args = {
+        MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class
+    }))
+    static class QueriedStatementsInterceptor implements Interceptor {
+
+        final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            String id = ((MappedStatement) invocation.getArgs()[0]).getId();
+            statements.add(id.substring(id.lastIndexOf(Statement.DOT) + 1));
+            return invocation.proceed();
+        }
+
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableMybatisRepositories(basePackageClasses = {BatchedPublisherDao.class}, considerNestedRepositories = true,
+            includeFilters = @Filter(type = FilterType.ASSIGNABLE_TYPE, classes = BatchedPublisherDao.class))
+    static class FindByIdBatchConfig extends IsolatedMybatisConfig {
+
+        static final QueriedStatementsInterceptor INTERCEPTOR = new QueriedStatementsInterceptor();
+
+        @Override
+        protected void configureMybatis(org.apache.ibatis.session.Configuration config) {
+            config.addInterceptor(INTERCEPTOR);
+        }
+
+        @Override
+        protected void configureRepositoryOptions(MybatisRepositoryOptions options) {
+            options.setFindByIdBatchWindow(500);
+        }
+
+    }
+
+    private AnnotationConfigApplicationContext context;
+    private BatchedPublisherDao dao;
+    private List<String> statements;
+
+    @Before
+    public void startContext() {
+        context = new AnnotationConfigApplicationContext(FindByIdBatchConfig.class);
+        dao = context.getBean(BatchedPublisherDao.class);
+        statements = FindByIdBatchConfig.INTERCEPTOR.statements;
+        statements.clear();
+    }
+
+    @After
+    public void closeContext() {
+        context.close();
+    }
+
+    @Test
+    public void testCoalesceConcurrentFindById() {
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<CompletableFuture<Publisher>> futures = new ArrayList<>();
+            for (int i = 1; i <= callers; i++) {
+                Integer id = i;
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return dao.findById(id).orElse(null);
+                }, executor));
+            }
+            start.countDown();
+            for (int i = 0; i < callers; i++) {
+                Publisher publisher = futures.get(i).join();
+                assertEquals(i < 7 ? Integer.valueOf(i + 1) : null, publisher == null ? null : publisher.getId());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // the calls through the repository proxy are loaded by one query
+        assertEquals(1, statements.size());
+        assertEquals(Statement.FIND_BY_IDS, statements.get(0));
+    }
+
+    @Test
+    public void testFindByIdInTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(
+                context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.executeWithoutResult(status -> {
+            Publisher publisher = dao.findById(1).get();
+            publisher.setName("saved-name");
+            dao.save(publisher);
+            // the transaction reads its own write without waiting for a batch
+            assertEquals("saved-name", dao.findById(1).get().getName());
+        });
+        assertEquals(Arrays.asList(Statement.FIND_BY_ID, Statement.FIND_BY_ID), statements);
+    }
+
+}
@@ -2,34 +2,139 @@ package org.springframework.data.mybatis.repository;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.sql.DataSource;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mybatis.spring.SqlSessionTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mybatis.config.IsolatedMybatisConfig;
 import org.springframework.data.mybatis.config.MybatisConfig;
+import org.springframework.data.mybatis.dao.BookDao;
 import org.springframework.data.mybatis.dao.PublisherDao;
+import org.springframework.data.mybatis.domain.Book;
+import org.springframework.data.mybatis.domain.KeysetPosition;
 import org.springframework.data.mybatis.domain.Publisher;
+import org.springframework.data.mybatis.domain.Window;
+import org.springframework.data.mybatis.repository.config.EnableMybatisRepositories;
+import org.springframework.data.mybatis.repository.support.MybatisRepositoryOptions;
+import org.springframework.data.relational.core.dialect.Dialect;
+import org.springframework.data.relational.core.dialect.H2Dialect;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.SqlConfig;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @RunWith(SpringRunner.class)
 @ContextConfiguration(classes = {MybatisConfig.class})
 @Sql(scripts = {"/data.sql"}, config = @SqlConfig(encoding = "UTF-8"))
 public class PublisherDaoTest {
     
+    @Configuration(proxyBeanMethods = false)
+    @EnableMybatisRepositories(basePackageClasses = {PublisherDao.class})
+    static class UnitOfWorkConfig extends IsolatedMybatisConfig {
+
+        @Override
+        protected void configureRepositoryOptions(MybatisRepositoryOptions options) {
+            options.setUnitOfWork(true);
+        }
+
+    }
+    
+    /**
+     * Records the number of rows of each JDBC batch flush.
+     */
+    @Intercepts(@Signature(type = Executor.class, method = "flushStatements", args = {}))
+    static class FlushedRowsInterceptor implements Interceptor {
+
+        final List<Integer> flushedRows = new ArrayList<>();
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            @SuppressWarnings("unchecked")
+            List<BatchResult> results = (List<BatchResult>) invocation.proceed();
+            int rows = results.stream().mapToInt(result -> result.getParameterObjects().size()).sum();
+            if (rows > 0) {
+                flushedRows.add(rows);
+            }
+            return results;
+        }
+
+    }
+    
+    @Configuration(proxyBeanMethods = false)
+    @EnableMybatisRepositories(basePackageClasses = {PublisherDao.class})
+    static class BatchConfig extends IsolatedMybatisConfig {
+
+        static final FlushedRowsInterceptor INTERCEPTOR = new FlushedRowsInterceptor();
+
+        @Override
+        protected void configureMybatis(org.apache.ibatis.session.Configuration config) {
+            config.addInterceptor(INTERCEPTOR);
+        }
+
+        @Override
+        protected void configureRepositoryOptions(MybatisRepositoryOptions options) {
+            options.setBatchSize(2);
+        }
+
+    }
+    
+    @Configuration(proxyBeanMethods = false)
+    @EnableMybatisRepositories(basePackageClasses = {PublisherDao.class})
+    static class H2DialectConfig extends IsolatedMybatisConfig {
+
+        @Override
+        protected Dialect getDialect(DataSource dataSource) {
+            // the tables of data.sql are not created with quoted identifiers
+            return new H2Dialect() {
+                @Override
+                public IdentifierProcessing getIdentifierProcessing() {
+                    return IdentifierProcessing.NONE;
+                }
+            };
+        }
+
+    }
+    
     @Autowired
     private PublisherDao publisherDao;
+    @Autowired
+    private SqlSessionTemplate sqlSessionTemplate;
     
     @Test
     public void testSaveAndDelete() {
@@ -80,4 +185,322 @@ public class PublisherDaoTest {
         assertEquals(8L, publisherDao.count());
     }
     
+    @Test
+    public void testFindAndDeleteAllById() {
+        // duplicate ids, padded up to the bucket of 4
+        List<Integer> ids = Arrays.asList(1, 3, 1, 3, 5);
+        assertEquals(3, publisherDao.findAllById(ids).size());
+        
+        // more ids than the largest bucket of 256, split into a chunk of 256 and a chunk of 46 padded to 64
+        ids = new ArrayList<>();
+        for (int i = 1; i <= 300; i++) {
+            ids.add(i);
+        }
+        ids.addAll(Arrays.asList(2, 4, 6, 299, 300, 301, 302));
+        assertEquals(7, publisherDao.findAllById(ids).size());
+        
+        publisherDao.deleteAllById(Arrays.asList(2, 2, 4, 6, 1000, 4));
+        assertEquals(4L, publisherDao.count());
+        publisherDao.deleteAllById(ids);
+        assertEquals(0L, publisherDao.count());
+    }
+    
+    @Test
+    public void testBatchSave() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(BatchConfig.class)) {
+            PublisherDao dao = context.getBean(PublisherDao.class);
+            List<Integer> flushedRows = BatchConfig.INTERCEPTOR.flushedRows;
+            flushedRows.clear();
+            
+            // inserts are sent before updates, the rows are flushed every 2 rows across the statements
+            List<Publisher> items = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                items.add(new Publisher("batch-" + i, "place-" + i));
+            }
+            Publisher first = dao.findById(1).get();
+            first.setPlace("batch-place");
+            Publisher second = dao.findById(2).get();
+            second.setPlace("batch-place");
+            items.add(first);
+            items.add(second);
+            assertArrayEquals(new int[] {1, 1, 1, 1, 1, 1, 1}, dao.batchSave(items));
+            assertEquals(Arrays.asList(2, 2, 2, 1), flushedRows);
+            for (Publisher item : items) {
+                assertNotNull(item.getId());
+                assertEquals(item.getPlace(), dao.findById(item.getId()).get().getPlace());
+            }
+            assertEquals(Integer.valueOf(1), first.getVersion());
+            assertEquals(12L, dao.count());
+            
+            // the update count of each row is checked, the whole batch is rolled back for a stale row
+            Publisher fresh = dao.findById(3).get();
+            fresh.setPlace("fresh-place");
+            Publisher stale = dao.findById(1).get();
+            stale.setVersion(0);
+            stale.setPlace("stale-place");
+            try {
+                dao.batchSave(Arrays.asList(new Publisher("rolled-back", "place"), fresh, stale));
+                fail("Stale entity must not be saved.");
+            } catch (OptimisticLockingFailureException e) {
+                assertEquals(Integer.valueOf(0), fresh.getVersion());
+                assertEquals("Sebastopol, CA", dao.findById(3).get().getPlace());
+                assertEquals("batch-place", dao.findById(1).get().getPlace());
+                assertTrue(dao.findByName("rolled-back").isEmpty());
+            }
+        }
+    }
+    
+    @Test
+    public void testInsertAll() {
+        List<Publisher> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(new Publisher("insert-all-" + i, "place-" + i));
+        }
+        assertEquals(10, publisherDao.insertAll(items));
+        for (Publisher item : items) {
+            assertNotNull(item.getId());
+            assertEquals(item.getName(), publisherDao.findById(item.getId()).get().getName());
+        }
+        assertEquals(17L, publisherDao.count());
+    }
+    
+    @Test
+    public void testDynamicUpdate() {
+        Publisher entity = publisherDao.findById(1).get();
+        assertNotNull(entity.loadedState());
+        
+        String name = entity.getName();
+        entity.setPlace("update-place");
+        int statementCount = sqlSessionTemplate.getConfiguration().getMappedStatements().size();
+        publisherDao.save(entity);
+        // the statement of the changed columns is not added to mybatis configuration
+        assertEquals(statementCount, sqlSessionTemplate.getConfiguration().getMappedStatements().size());
+        Publisher updated = publisherDao.findById(1).get();
+        assertEquals(name, updated.getName());
+        assertEquals("update-place", updated.getPlace());
+        
+        // nothing changed, no update is executed
+        assertEquals(updated, publisherDao.save(updated));
+    }
+    
+    @Test
+    public void testOptimisticLocking() {
+        Publisher entity = publisherDao.findById(2).get();
+        Publisher stale = publisherDao.findById(2).get();
+        assertEquals(Integer.valueOf(0), entity.getVersion());
+        
+        entity.setPlace("update-place");
+        publisherDao.save(entity);
+        assertEquals(Integer.valueOf(1), entity.getVersion());
+        assertEquals(Integer.valueOf(1), publisherDao.findById(2).get().getVersion());
+        
+        stale.setName("stale-name");
+        try {
+            publisherDao.save(stale);
+            fail("Stale entity must not be saved.");
+        } catch (OptimisticLockingFailureException e) {
+            assertEquals("OReilly", publisherDao.findById(2).get().getName());
+        }
+        try {
+            publisherDao.delete(stale);
+            fail("Stale entity must not be deleted.");
+        } catch (OptimisticLockingFailureException e) {
+            assertTrue(publisherDao.existsById(2));
+        }
+    }
+    
+    @Test
+    @Transactional
+    public void testStreamAll() {
+        try (Stream<Publisher> stream = publisherDao.streamAll(Sort.by(Sort.Direction.DESC, "id"))) {
+            List<Integer> ids = stream.map(Publisher::getId).collect(Collectors.toList());
+            assertEquals(7, ids.size());
+            assertEquals(Integer.valueOf(7), ids.get(0));
+        }
+        try (Stream<Publisher> stream = publisherDao.streamByPlace("Sebastopol, CA")) {
+            assertEquals(4L, stream.count());
+        }
+    }
+    
+    @Test
+    public void testKeysetPagination() {
+        List<Integer> expected = publisherDao.findAll().stream()
+                .sorted(Comparator.comparing(Publisher::getPlace).thenComparing(Publisher::getId))
+                .map(Publisher::getId)
+                .collect(Collectors.toList());
+        List<Integer> ids = new ArrayList<>();
+        KeysetPosition position = KeysetPosition.initial();
+        Window<Publisher> window;
+        do {
+            window = publisherDao.findAll(position, 3, Sort.by("place"));
+            window.forEach(publisher -> ids.add(publisher.getId()));
+            position = window.nextPosition();
+        } while (window.hasNext());
+        assertEquals(expected, ids);
+    }
+    
+    @Test
+    public void testKeysetPaginationRejectsNullKeys() {
+        try {
+            KeysetPosition.of(Collections.singletonMap("place", null));
+            fail("Null keys must be rejected.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        Publisher publisher = publisherDao.save(new Publisher("null-place", null));
+        try {
+            publisherDao.findAll(KeysetPosition.initial(), 10, Sort.by("place"));
+            fail("Null keys must be rejected.");
+        } catch (RuntimeException e) {
+            assertTrue(NestedExceptionUtils.getMostSpecificCause(e) instanceof IllegalStateException);
+        } finally {
+            publisherDao.delete(publisher);
+        }
+    }
+    
+    @Test
+    public void testSlice() {
+        Slice<Publisher> slice = publisherDao.findSlice(PageRequest.of(1, 3));
+        assertEquals(3, slice.getNumberOfElements());
+        assertTrue(slice.hasNext());
+        slice = publisherDao.findSlice(slice.nextPageable());
+        assertEquals(1, slice.getNumberOfElements());
+        assertFalse(slice.hasNext());
+        
+        slice = publisherDao.findSliceByPlaceContaining("Sebastopol", PageRequest.of(0, 4));
+        assertEquals(4, slice.getNumberOfElements());
+        assertFalse(slice.hasNext());        
+        // a parameter named slice does not read a slice
+        Page<Publisher> page = publisherDao.findByPlaceOrAll("Sebastopol, CA", true, PageRequest.of(0, 3));
+        assertEquals(7L, page.getTotalElements());
+    }
+    
+    @Test
+    public void testUnitOfWork() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(UnitOfWorkConfig.class)) {
+            PublisherDao dao = context.getBean(PublisherDao.class);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(
+                    context.getBean(PlatformTransactionManager.class));
+            
+            // saves of the same instance are coalesced into one insert, flushed before the query
+            Publisher publisher = new Publisher("unit-of-work", "place");
+            transactionTemplate.executeWithoutResult(status -> {
+                dao.save(publisher);
+                publisher.setPlace("coalesced-place");
+                dao.save(publisher);
+                assertNull(publisher.getId());
+                assertEquals("coalesced-place", dao.findByName("unit-of-work").get(0).getPlace());
+                assertNotNull(publisher.getId());
+            });
+            assertEquals(8L, dao.count());
+            
+            // an instance inserted and deleted in the same transaction never reaches the database
+            Publisher cancelled = new Publisher("cancelled", "place");
+            transactionTemplate.executeWithoutResult(status -> {
+                dao.save(cancelled);
+                dao.delete(cancelled);
+            });
+            assertTrue(dao.findByName("cancelled").isEmpty());
+            assertEquals(8L, dao.count());
+            
+            // versions are checked and incremented when the updates are flushed
+            Publisher entity = dao.findById(2).get();
+            Publisher stale = dao.findById(2).get();
+            transactionTemplate.executeWithoutResult(status -> {
+                entity.setPlace("update-place");
+                dao.save(entity);
+                assertEquals(Integer.valueOf(0), entity.getVersion());
+            });
+            assertEquals(Integer.valueOf(1), entity.getVersion());
+            stale.setName("stale-name");
+            try {
+                transactionTemplate.executeWithoutResult(status -> dao.save(stale));
+                fail("Stale entity must not be saved.");
+            } catch (OptimisticLockingFailureException e) {
+                assertEquals("OReilly", dao.findById(2).get().getName());
+            }
+            
+            // writes are flushed in program order, the row is deleted before its unique name is inserted again
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+            jdbcTemplate.execute("CREATE UNIQUE INDEX uk_publisher_name ON lib_publisher(name)");
+            transactionTemplate.executeWithoutResult(status -> {
+                dao.delete(dao.findByName("Wiley").get(0));
+                dao.save(new Publisher("Wiley", "Hoboken, NJ"));
+            });
+            assertEquals(1, dao.findByName("Wiley").size());
+            
+            // bulk deletes are deferred too, the JDBC connection of the transaction still sees the rows
+            String countSql = "SELECT COUNT(*) FROM lib_publisher WHERE id IN (3, 4, 6)";
+            transactionTemplate.executeWithoutResult(status -> {
+                dao.deleteAll(Arrays.asList(dao.findById(6).get()));
+                dao.deleteAllById(Arrays.asList(3, 4));
+                assertEquals(Integer.valueOf(3), jdbcTemplate.queryForObject(countSql, Integer.class));
+            });
+            assertEquals(Integer.valueOf(0), jdbcTemplate.queryForObject(countSql, Integer.class));
+            
+            // an insert after deleting all rows is flushed after the delete
+            transactionTemplate.executeWithoutResult(status -> {
+                dao.deleteAll();
+                dao.save(new Publisher("after-delete-all", "place"));
+                assertEquals(Long.valueOf(5L), jdbcTemplate.queryForObject("SELECT COUNT(*) FROM lib_publisher", Long.class));
+            });
+            assertEquals(1L, dao.count());
+        }
+    }
+    
+    @Test
+    public void testUpsert() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(H2DialectConfig.class)) {
+            PublisherDao dao = context.getBean(PublisherDao.class);
+            
+            // a new row is inserted with the next version
+            Publisher publisher = new Publisher("upsert", "insert-place");
+            publisher.setId(100);
+            dao.upsert(publisher);
+            assertEquals(Integer.valueOf(1), publisher.getVersion());
+            Publisher inserted = dao.findById(100).get();
+            assertEquals("insert-place", inserted.getPlace());
+            assertEquals(Integer.valueOf(1), inserted.getVersion());
+            
+            // an existing row is updated if it has the version of the entity
+            Publisher stale = dao.findById(100).get();
+            publisher.setPlace("update-place");
+            dao.upsert(publisher);
+            assertEquals(Integer.valueOf(2), publisher.getVersion());
+            Publisher updated = dao.findById(100).get();
+            assertEquals("update-place", updated.getPlace());
+            assertEquals(Integer.valueOf(2), updated.getVersion());
+            stale.setPlace("stale-place");
+            try {
+                dao.upsert(stale);
+                fail("Stale entity must not be upserted.");
+            } catch (OptimisticLockingFailureException e) {
+                assertEquals("update-place", dao.findById(100).get().getPlace());
+            }
+            
+            // the upserted entity can still be saved
+            updated.setName("saved");
+            dao.save(updated);
+            assertEquals(Integer.valueOf(3), dao.findById(100).get().getVersion());
+            
+            Publisher existing = dao.findById(1).get();
+            existing.setPlace("batch-place");
+            Publisher added = new Publisher("upsert-all", "batch-place");
+            added.setId(101);
+            assertEquals(2, dao.upsertAll(Arrays.asList(existing, added)).length);
+            assertEquals(Integer.valueOf(1), existing.getVersion());
+            assertEquals(Integer.valueOf(1), added.getVersion());
+            assertEquals("batch-place", dao.findById(1).get().getPlace());
+            assertEquals("upsert-all", dao.findById(101).get().getName());
+            assertEquals(9L, dao.count());
+            
+            // entities without version
+            BookDao bookDao = context.getBean(BookDao.class);
+            Book book = bookDao.findById(1).get();
+            book.setName("upserted");
+            bookDao.upsert(book);
+            assertEquals("upserted", bookDao.findById(1).get().getName());
+        }
+    }
+    
 }
@@ -0,0 +1,115 @@
+package org.springframework.data.mybatis.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.mybatis.config.IsolatedMybatisConfig;
+import org.springframework.data.mybatis.domain.Publisher;
+import org.springframework.data.mybatis.repository.config.EnableMybatisRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class ReferenceDataTest {
+
+    @ReferenceData
+    public interface PublisherReferenceDao extends MybatisRepository<Publisher, Integer> {
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableMybatisRepositories(basePackageClasses = {PublisherReferenceDao.class}, considerNestedRepositories = true,
+            includeFilters = @Filter(type = FilterType.ASSIGNABLE_TYPE, classes = PublisherReferenceDao.class))
+    static class ReferenceDataConfig extends IsolatedMybatisConfig {
+    }
+
+    private AnnotationConfigApplicationContext context;
+    private PublisherReferenceDao dao;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void startContext() {
+        context = new AnnotationConfigApplicationContext(ReferenceDataConfig.class);
+        dao = context.getBean(PublisherReferenceDao.class);
+        jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+    }
+
+    @After
+    public void closeContext() {
+        context.close();
+    }
+
+    private static Publisher copy(Publisher publisher) {
+        Publisher copy = new Publisher(publisher.getId());
+        copy.setName(publisher.getName());
+        copy.setPlace(publisher.getPlace());
+        copy.setVersion(publisher.getVersion());
+        return copy;
+    }
+
+    @Test
+    public void testReadSnapshot() {
+        // the snapshot is loaded when the repository is created, rows written behind the repository are not seen
+        jdbcTemplate.update("delete from lib_publisher where id = 7");
+        assertEquals(7L, dao.count());
+        assertTrue(dao.existsById(7));
+        assertFalse(dao.existsById(8));
+        assertEquals(3, dao.findAllById(Arrays.asList(1, 3, 3, 7, 8)).size());
+
+        // reads share the read-only entities of the snapshot
+        Publisher publisher = dao.findById(1).get();
+        assertSame(publisher, dao.findById(1).get());
+        assertSame(publisher, dao.findAll().get(0));
+        try {
+            dao.findAll().remove(1);
+            fail("The entities of the snapshot must not be modifiable.");
+        } catch (UnsupportedOperationException e) {
+            assertEquals(7, dao.findAll().size());
+        }
+    }
+
+    @Test
+    public void testReloadAfterCommit() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(
+                context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.executeWithoutResult(status -> {
+            Publisher publisher = copy(dao.findById(1).get());
+            publisher.setName("saved-name");
+            dao.save(publisher);
+            // the transaction reads its own write from the database
+            assertEquals("saved-name", dao.findById(1).get().getName());
+        });
+        assertEquals("saved-name", dao.findById(1).get().getName());
+
+        // an entity of the snapshot changed in place is replaced after the rollback
+        transactionTemplate.executeWithoutResult(status -> {
+            Publisher publisher = dao.findById(1).get();
+            publisher.setName("rolled-back");
+            dao.save(publisher);
+            status.setRollbackOnly();
+        });
+        assertEquals("saved-name", dao.findById(1).get().getName());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            dao.deleteById(2);
+            status.setRollbackOnly();
+        });
+        assertEquals(7L, dao.count());
+        dao.deleteById(2);
+        assertEquals(6L, dao.count());
+    }
+
+}
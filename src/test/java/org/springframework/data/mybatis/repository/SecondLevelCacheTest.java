@@ -0,0 +1,149 @@
+package org.springframework.data.mybatis.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.mybatis.config.IsolatedMybatisConfig;
+import org.springframework.data.mybatis.domain.Publisher;
+import org.springframework.data.mybatis.repository.config.EnableMybatisRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class SecondLevelCacheTest {
+
+    @SecondLevelCache
+    public interface CachedPublisherDao extends MybatisRepository<Publisher, Integer> {
+    }
+
+    /**
+     * Runs a task after the row of {@code findById} is selected, before it is cached.
+     */
+    @Intercepts(@Signature(type = Executor.class, method = "query", args = {
+        MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class
+    }))
+    static class AfterSelectInterceptor implements Interceptor {
+
+        static final AtomicReference<Runnable> TASK = new AtomicReference<>();
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            Object result = invocation.proceed();
+            Runnable task = TASK.getAndSet(null);
+            if (task != null) {
+                CompletableFuture.runAsync(task).join();
+            }
+            return result;
+        }
+
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableMybatisRepositories(basePackageClasses = {CachedPublisherDao.class}, considerNestedRepositories = true,
+            includeFilters = @Filter(type = FilterType.ASSIGNABLE_TYPE, classes = CachedPublisherDao.class))
+    static class SecondLevelCacheConfig extends IsolatedMybatisConfig {
+
+        @Override
+        protected void configureMybatis(org.apache.ibatis.session.Configuration config) {
+            config.addInterceptor(new AfterSelectInterceptor());
+        }
+
+    }
+
+    private AnnotationConfigApplicationContext context;
+    private CachedPublisherDao dao;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @Before
+    public void startContext() {
+        context = new AnnotationConfigApplicationContext(SecondLevelCacheConfig.class);
+        dao = context.getBean(CachedPublisherDao.class);
+        jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @After
+    public void closeContext() {
+        AfterSelectInterceptor.TASK.set(null);
+        context.close();
+    }
+
+    private void rename(int id, String name) {
+        jdbcTemplate.update("update lib_publisher set name = ? where id = ?", name, id);
+    }
+
+    @Test
+    public void testCacheHit() {
+        Publisher publisher = dao.findById(1).get();
+        // a row changed behind the repository is not read again
+        rename(1, "jdbc-name");
+        Publisher cached = dao.findById(1).get();
+        assertEquals("Wiley", cached.getName());
+
+        // each read gets its own copy, changes of one caller are not seen by others
+        assertNotSame(publisher, cached);
+        cached.setName("changed-name");
+        assertEquals("Wiley", dao.findById(1).get().getName());
+        assertEquals("Wiley", dao.findAllById(Arrays.asList(1, 2)).get(0).getName());
+    }
+
+    @Test
+    public void testEvictAfterCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Publisher publisher = dao.findById(1).get();
+            publisher.setName("saved-name");
+            dao.save(publisher);
+            // the transaction reads its own write
+            assertEquals("saved-name", dao.findById(1).get().getName());
+            // another caller caches the committed row while the transaction is not completed
+            assertEquals("Wiley", CompletableFuture.supplyAsync(() -> dao.findById(1).get().getName()).join());
+        });
+        assertEquals("saved-name", dao.findById(1).get().getName());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Publisher publisher = dao.findById(2).get();
+            publisher.setName("rolled-back");
+            dao.save(publisher);
+            status.setRollbackOnly();
+        });
+        assertEquals("OReilly", dao.findById(2).get().getName());
+        dao.deleteById(2);
+        assertNull(dao.findById(2).orElse(null));
+    }
+
+    @Test
+    public void testStaleLoadNotCached() {
+        // the row is saved by another caller after it is selected but before it is cached
+        AfterSelectInterceptor.TASK.set(() -> {
+            Publisher publisher = dao.findById(1).get();
+            publisher.setName("concurrent-name");
+            dao.save(publisher);
+        });
+        assertEquals("Wiley", dao.findById(1).get().getName());
+        assertEquals("concurrent-name", dao.findById(1).get().getName());
+    }
+
+}
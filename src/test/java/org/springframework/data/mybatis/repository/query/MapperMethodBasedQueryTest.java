@@ -0,0 +1,94 @@
+package org.springframework.data.mybatis.repository.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.ibatis.binding.MapperProxyFactory;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mybatis.config.IsolatedMybatisConfig;
+import org.springframework.data.mybatis.dao.PublisherDao;
+import org.springframework.data.mybatis.domain.Publisher;
+import org.springframework.data.mybatis.repository.config.EnableMybatisRepositories;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.core.support.AbstractRepositoryMetadata;
+import org.springframework.data.repository.core.support.PropertiesBasedNamedQueries;
+import org.springframework.data.repository.query.RepositoryQuery;
+
+public class MapperMethodBasedQueryTest {
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableMybatisRepositories(basePackageClasses = {PublisherDao.class})
+    static class QueryConfig extends IsolatedMybatisConfig {
+    }
+
+    private AnnotationConfigApplicationContext context;
+    private SqlSessionTemplate sqlSessionTemplate;
+
+    @Before
+    public void startContext() {
+        context = new AnnotationConfigApplicationContext(QueryConfig.class);
+        sqlSessionTemplate = context.getBean(SqlSessionTemplate.class);
+    }
+
+    @After
+    public void closeContext() {
+        context.close();
+    }
+
+    private RepositoryQuery resolveQuery(Class<?> repositoryInterface, String methodName, Class<?>... parameterTypes)
+            throws NoSuchMethodException {
+        RepositoryMetadata metadata = AbstractRepositoryMetadata.getMetadata(repositoryInterface);
+        return new MybatisQueryLookupStrategy(sqlSessionTemplate).resolveQuery(
+                repositoryInterface.getMethod(methodName, parameterTypes), metadata,
+                new SpelAwareProxyProjectionFactory(), new PropertiesBasedNamedQueries(new Properties()));
+    }
+
+    /**
+     * Methods resolved by the mapper proxies of the repository interface, they are only resolved when a mapper proxy
+     * is invoked.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<?, ?> mapperProxyMethods(Class<?> repositoryInterface) {
+        Map<Class<?>, MapperProxyFactory<?>> knownMappers = (Map<Class<?>, MapperProxyFactory<?>>) SystemMetaObject
+                .forObject(sqlSessionTemplate.getConfiguration().getMapperRegistry()).getValue("knownMappers");
+        return knownMappers.get(repositoryInterface).getMethodCache();
+    }
+
+    @Test
+    public void testResolveMapperMethod() throws NoSuchMethodException {
+        RepositoryQuery query = resolveQuery(PublisherDao.class, "findByName", String.class);
+        assertTrue(query instanceof MapperMethodBasedQuery);
+        List<?> publishers = (List<?>) query.execute(new Object[] {"Wiley"});
+        assertEquals(1, publishers.size());
+        assertEquals("Wiley", ((Publisher) publishers.get(0)).getName());
+
+        // stream methods read a cursor instead
+        assertTrue(resolveQuery(PublisherDao.class, "streamByPlace", String.class) instanceof CursorBasedQuery);
+    }
+
+    @Test
+    public void testDispatchWithoutMapperProxy() {
+        PublisherDao dao = context.getBean(PublisherDao.class);
+        assertEquals(1, dao.findByName("Wiley").size());
+        Page<Publisher> page = dao.findByNameContaining("Wiley", PageRequest.of(0, 1));
+        assertEquals(2L, page.getTotalElements());
+        assertEquals(1, page.getNumberOfElements());
+        assertEquals(4, dao.findSliceByPlaceContaining("Sebastopol", PageRequest.of(0, 10)).getNumberOfElements());
+        // the queries are executed by their bound mapper methods, no mapper proxy method is resolved
+        assertTrue(mapperProxyMethods(PublisherDao.class).isEmpty());
+    }
+
+}
@@ -0,0 +1,113 @@
+package org.springframework.data.mybatis.repository.query;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mybatis.config.IsolatedMybatisConfig;
+import org.springframework.data.mybatis.dao.PublisherDao;
+import org.springframework.data.mybatis.domain.Publisher;
+import org.springframework.data.mybatis.repository.config.EnableMybatisRepositories;
+
+public class PageableInteceptorTest {
+
+    /**
+     * Records whether each executed statement is a page or a count, statement handlers are created for the statements
+     * generated by {@link PageableInteceptor} too.
+     */
+    @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+    static class ExecutedStatementsInterceptor implements Interceptor {
+
+        final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            MappedStatement ms = (MappedStatement) SystemMetaObject.forObject(invocation.getTarget())
+                    .getValue("delegate.mappedStatement");
+            statements.add(ms.getId().contains("-count-") ? "count" : "page");
+            return invocation.proceed();
+        }
+
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableMybatisRepositories(basePackageClasses = {PublisherDao.class})
+    static class PageConfig extends IsolatedMybatisConfig {
+
+        static final ExecutedStatementsInterceptor INTERCEPTOR = new ExecutedStatementsInterceptor();
+
+        @Override
+        protected void configureMybatis(org.apache.ibatis.session.Configuration config) {
+            config.addInterceptor(INTERCEPTOR);
+        }
+
+    }
+
+    private AnnotationConfigApplicationContext context;
+    private PublisherDao dao;
+    private List<String> statements;
+
+    @Before
+    public void startContext() {
+        context = new AnnotationConfigApplicationContext(PageConfig.class);
+        dao = context.getBean(PublisherDao.class);
+        statements = PageConfig.INTERCEPTOR.statements;
+        statements.clear();
+    }
+
+    @After
+    public void closeContext() {
+        context.close();
+    }
+
+    @Test
+    public void testNoCountForShortFirstPage() {
+        Page<Publisher> page = dao.findByNameContaining("", PageRequest.of(0, 10));
+        assertEquals(7L, page.getTotalElements());
+        assertEquals(7, page.getNumberOfElements());
+        assertEquals(Collections.singletonList("page"), statements);
+    }
+
+    @Test
+    public void testNoCountForShortLastPage() {
+        Page<Publisher> page = dao.findByNameContaining("", PageRequest.of(1, 5));
+        assertEquals(7L, page.getTotalElements());
+        assertEquals(2, page.getNumberOfElements());
+        assertEquals(Collections.singletonList("page"), statements);
+    }
+
+    @Test
+    public void testCountForFullOrEmptyPage() {
+        // a full page may be followed by more rows
+        Page<Publisher> page = dao.findByNameContaining("", PageRequest.of(0, 5));
+        assertEquals(7L, page.getTotalElements());
+        assertEquals(5, page.getNumberOfElements());
+        assertEquals(Arrays.asList("page", "count"), statements);
+
+        // an empty page after the first does not tell whether the offset is past the last row
+        statements.clear();
+        page = dao.findByNameContaining("", PageRequest.of(3, 5));
+        assertEquals(7L, page.getTotalElements());
+        assertEquals(0, page.getNumberOfElements());
+        assertEquals(Arrays.asList("page", "count"), statements);
+    }
+
+}
@@ -0,0 +1,136 @@
+package org.springframework.data.mybatis.repository.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.Test;
+import org.springframework.data.mybatis.domain.Publisher;
+
+public class CoalescingLoaderTest {
+
+    private final List<List<Object>> batches = new CopyOnWriteArrayList<>();
+
+    /**
+     * Loads publishers of positive ids.
+     */
+    private List<Publisher> loadBatch(List<Object> ids) {
+        batches.add(ids);
+        List<Publisher> publishers = new ArrayList<>();
+        for (Object id : ids) {
+            if ((Integer) id > 0) {
+                publishers.add(publisher((Integer) id));
+            }
+        }
+        return publishers;
+    }
+
+    private static Publisher publisher(Integer id) {
+        Publisher publisher = new Publisher(id);
+        publisher.setName("publisher-" + id);
+        return publisher;
+    }
+
+    private static Publisher copy(Publisher publisher) {
+        Publisher copy = publisher(publisher.getId());
+        copy.setName(publisher.getName());
+        return copy;
+    }
+
+    private List<Publisher> loadConcurrently(CoalescingLoader<Publisher> loader, Integer... ids) {
+        ExecutorService executor = Executors.newFixedThreadPool(ids.length);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<CompletableFuture<Publisher>> futures = new ArrayList<>();
+            for (Integer id : ids) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return loader.load(id);
+                }, executor));
+            }
+            start.countDown();
+            List<Publisher> publishers = new ArrayList<>();
+            futures.forEach(future -> publishers.add(future.join()));
+            return publishers;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCoalesceConcurrentLoads() {
+        CoalescingLoader<Publisher> loader = new CoalescingLoader<>(this::loadBatch, CoalescingLoaderTest::copy, 500, 256);
+        List<Publisher> publishers = loadConcurrently(loader, 1, 2, 3, -1, 2);
+        assertEquals(1, batches.size());
+        assertEquals(new HashSet<>(Arrays.asList(1, 2, 3, -1)), new HashSet<>(batches.get(0)));
+        assertEquals("publisher-1", publishers.get(0).getName());
+        assertEquals("publisher-3", publishers.get(2).getName());
+        assertNull(publishers.get(3));
+
+        // callers of the same id get their own instances
+        assertEquals(Integer.valueOf(2), publishers.get(1).getId());
+        assertEquals(Integer.valueOf(2), publishers.get(4).getId());
+        assertNotSame(publishers.get(1), publishers.get(4));
+    }
+
+    @Test
+    public void testLoadFullBatchAtOnce() {
+        CoalescingLoader<Publisher> loader = new CoalescingLoader<>(this::loadBatch, CoalescingLoaderTest::copy,
+                TimeUnit.MINUTES.toMillis(1), 2);
+        long start = System.nanoTime();
+        List<Publisher> publishers = loadConcurrently(loader, 1, 2);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+        assertEquals(1, batches.size());
+        assertEquals("publisher-2", publishers.get(1).getName());
+    }
+
+    @Test
+    public void testInterruptedCallerLoadsAtOnce() {
+        CoalescingLoader<Publisher> loader = new CoalescingLoader<>(this::loadBatch, CoalescingLoaderTest::copy,
+                TimeUnit.MINUTES.toMillis(1), 256);
+        long start = System.nanoTime();
+        Thread.currentThread().interrupt();
+        try {
+            assertEquals("publisher-1", loader.load(1).getName());
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+        assertEquals(Collections.singletonList(Collections.singletonList(1)), batches);
+    }
+
+    @Test
+    public void testFailAllCallers() {
+        Function<List<Object>, List<Publisher>> failing = ids -> {
+            throw new IllegalStateException("batch failed");
+        };
+        CoalescingLoader<Publisher> loader = new CoalescingLoader<>(failing, CoalescingLoaderTest::copy, 200, 256);
+        try {
+            loadConcurrently(loader, 1, 2);
+            fail("Callers must fail with the batch.");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+package org.springframework.data.mybatis.repository.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.ibatis.annotations.Arg;
+import org.apache.ibatis.annotations.ConstructorArgs;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.mybatis.config.IsolatedMybatisConfig;
+import org.springframework.data.mybatis.dao.BookDao;
+import org.springframework.data.mybatis.domain.Book;
+import org.springframework.data.mybatis.domain.Publisher;
+import org.springframework.data.mybatis.repository.MybatisRepository;
+import org.springframework.data.mybatis.repository.Query;
+import org.springframework.data.mybatis.repository.config.EnableMybatisRepositories;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+
+public class EntityObjectFactoryTest {
+
+    public interface ConstructedPublisherDao extends MybatisRepository<Publisher, Integer> {
+
+        @Query
+        @Select("select o.name, o.place, o.id, o.version from lib_publisher o where o.id = #{id}")
+        @ConstructorArgs({
+            @Arg(column = "name", javaType = String.class),
+            @Arg(column = "place", javaType = String.class)
+        })
+        Publisher findConstructedById(Integer id);
+
+    }
+
+    @org.springframework.context.annotation.Configuration(proxyBeanMethods = false)
+    @EnableMybatisRepositories(basePackageClasses = {BookDao.class, ConstructedPublisherDao.class},
+            considerNestedRepositories = true, includeFilters = @Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = {BookDao.class, ConstructedPublisherDao.class}))
+    static class FactoryConfig extends IsolatedMybatisConfig {
+    }
+
+    private static RelationalMappingContext mappingContext() {
+        RelationalMappingContext mappingContext = new RelationalMappingContext();
+        mappingContext.getRequiredPersistentEntity(Book.class);
+        return mappingContext;
+    }
+
+    @Test
+    public void testCreateEntity() {
+        EntityObjectFactory objectFactory = new EntityObjectFactory(mappingContext());
+        assertEquals(Publisher.class, objectFactory.create(Publisher.class).getClass());
+
+        // constructor arguments and types of no entity are passed to the default object factory
+        Publisher publisher = objectFactory.create(Publisher.class, Arrays.asList(String.class, String.class),
+                Arrays.asList("constructed", "place"));
+        assertEquals("constructed", publisher.getName());
+        assertEquals("place", publisher.getPlace());
+        assertEquals(ArrayList.class, objectFactory.create(List.class).getClass());
+    }
+
+    @Test
+    public void testWrapEntity() {
+        RelationalMappingContext mappingContext = mappingContext();
+        EntityObjectFactory objectFactory = new EntityObjectFactory(mappingContext);
+        EntityObjectWrapperFactory wrapperFactory = new EntityObjectWrapperFactory(mappingContext);
+        Book book = new Book();
+        assertTrue(wrapperFactory.hasWrapperFor(book));
+        assertFalse(wrapperFactory.hasWrapperFor(new HashMap<>()));
+
+        MetaObject metaObject = MetaObject.forObject(book, objectFactory, wrapperFactory, new DefaultReflectorFactory());
+        metaObject.setValue("id", 1);
+        metaObject.setValue("name", "wrapped");
+        // the missing nested entity is created by the object factory
+        metaObject.setValue("publisher.name", "nested");
+        assertEquals(Integer.valueOf(1), book.getId());
+        assertEquals("wrapped", metaObject.getValue("name"));
+        assertEquals("nested", book.getPublisher().getName());
+        assertEquals("nested", metaObject.getValue("publisher.name"));
+    }
+
+    @Test
+    public void testMapRows() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(FactoryConfig.class)) {
+            Configuration config = context.getBean(SqlSessionTemplate.class).getConfiguration();
+            assertTrue(config.getObjectFactory() instanceof EntityObjectFactory);
+            assertTrue(config.getObjectWrapperFactory() instanceof EntityObjectWrapperFactory);
+
+            // properties and nested entities are populated through the wrappers
+            Book book = context.getBean(BookDao.class).findById(1).get();
+            assertNotNull(book.getName());
+            assertEquals(Integer.valueOf(1), book.getPublisher().getId());
+
+            // constructor arguments first, the other columns are auto-mapped to properties
+            Publisher publisher = context.getBean(ConstructedPublisherDao.class).findConstructedById(2);
+            assertEquals("OReilly", publisher.getName());
+            assertEquals("Sebastopol, CA", publisher.getPlace());
+            assertEquals(Integer.valueOf(2), publisher.getId());
+            assertEquals(Integer.valueOf(0), publisher.getVersion());
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+package org.springframework.data.mybatis.repository.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LruEntityCacheTest {
+
+    @Test
+    public void testEvictRegion() {
+        LruEntityCache cache = new LruEntityCache();
+        cache.put("lib_book", 1, "book-1");
+        cache.put("lib_book", 2, "book-2");
+        cache.put("lib_publisher", 1, "publisher-1");
+        assertEquals("book-1", cache.get("lib_book", 1));
+        assertEquals("publisher-1", cache.get("lib_publisher", 1));
+
+        cache.evict("lib_book", 1);
+        assertNull(cache.get("lib_book", 1));
+        assertEquals("book-2", cache.get("lib_book", 2));
+
+        // other regions are not touched
+        cache.evictAll("lib_book");
+        assertNull(cache.get("lib_book", 2));
+        assertEquals(0, cache.size("lib_book"));
+        assertEquals("publisher-1", cache.get("lib_publisher", 1));
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        LruEntityCache cache = new LruEntityCache(100);
+        for (int i = 0; i < 100; i++) {
+            cache.put("lib_book", i, "book-" + i);
+        }
+        cache.put("lib_publisher", 0, "publisher-0");
+        // the first entity is used again, the others are evicted in insertion order
+        assertEquals("book-0", cache.get("lib_book", 0));
+        cache.put("lib_book", 100, "book-100");
+        assertTrue(cache.size("lib_book") <= 100);
+        assertEquals("book-0", cache.get("lib_book", 0));
+        assertNull(cache.get("lib_book", 1));
+        assertEquals("book-100", cache.get("lib_book", 100));
+        assertEquals(1, cache.size("lib_publisher"));
+    }
+
+}
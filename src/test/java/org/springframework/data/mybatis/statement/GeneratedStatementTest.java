@@ -0,0 +1,185 @@
+package org.springframework.data.mybatis.statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mybatis.config.IsolatedMybatisConfig;
+import org.springframework.data.mybatis.dao.PublisherDao;
+import org.springframework.data.mybatis.domain.IntId;
+import org.springframework.data.mybatis.domain.Publisher;
+import org.springframework.data.mybatis.repository.MybatisRepository;
+import org.springframework.data.mybatis.repository.config.EnableMybatisRepositories;
+import org.springframework.data.mybatis.repository.support.MybatisRepositoryOptions;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+public class GeneratedStatementTest {
+
+    /**
+     * A publisher whose properties are named differently from the columns.
+     */
+    @Table("lib_publisher")
+    public static class NamedPublisher extends IntId {
+
+        @Column("name")
+        private String title;
+        @Column("place")
+        private String city;
+        @Version
+        private Integer version;
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+        public void setCity(String city) {
+            this.city = city;
+        }
+
+        public Integer getVersion() {
+            return version;
+        }
+
+        public void setVersion(Integer version) {
+            this.version = version;
+        }
+
+    }
+
+    public interface NamedPublisherDao extends MybatisRepository<NamedPublisher, Integer> {
+    }
+
+    @org.springframework.context.annotation.Configuration(proxyBeanMethods = false)
+    @EnableMybatisRepositories(basePackageClasses = {PublisherDao.class, NamedPublisherDao.class},
+            considerNestedRepositories = true, includeFilters = @Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = {PublisherDao.class, NamedPublisherDao.class}))
+    static class StatementConfig extends IsolatedMybatisConfig {
+
+        @Override
+        protected void configureRepositoryOptions(MybatisRepositoryOptions options) {
+            // a bucket larger than the lists cached by the in clause sql source
+            options.setInClauseBuckets(1, 4, 2048);
+        }
+
+    }
+
+    private AnnotationConfigApplicationContext context;
+    private Configuration config;
+
+    @Before
+    public void startContext() {
+        context = new AnnotationConfigApplicationContext(StatementConfig.class);
+        config = context.getBean(SqlSessionTemplate.class).getConfiguration();
+    }
+
+    @After
+    public void closeContext() {
+        context.close();
+    }
+
+    private MappedStatement statement(Class<?> repositoryType, String name) {
+        return config.getMappedStatement(repositoryType.getName() + Statement.DOT + name);
+    }
+
+    @Test
+    public void testStaticStatementsAreRaw() {
+        for (String name : new String[] {Statement.FIND_BY_ID, Statement.COUNT_BY_ID, Statement.COUNT_ALL,
+            Statement.INSERT, Statement.UPDATE_BY_ID, Statement.DELETE_BY_ID, Statement.DELETE_BY_ID_AND_VERSION}) {
+            assertTrue(name, statement(PublisherDao.class, name).getSqlSource() instanceof RawSqlSource);
+        }
+        // the order by of streamAll is a ${} substitution
+        assertTrue(statement(PublisherDao.class, Statement.STREAM_ALL).getSqlSource() instanceof DynamicSqlSource);
+    }
+
+    @Test
+    public void testExpandIdList() {
+        MappedStatement ms = statement(PublisherDao.class, Statement.FIND_BY_IDS);
+        assertTrue(ms.getSqlSource() instanceof InClauseSqlSource);
+        for (int size : new int[] {1, 3, 1024, 1025, 2048}) {
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 1; i <= size; i++) {
+                ids.add(i);
+            }
+            BoundSql boundSql = ms.getBoundSql(Collections.singletonMap(Statement.PARAM_IDS, ids));
+            assertEquals(size, boundSql.getSql().chars().filter(c -> c == '?').count());
+            assertEquals(size, boundSql.getParameterMappings().size());
+            ParameterMapping last = boundSql.getParameterMappings().get(size - 1);
+            assertEquals(Statement.PARAM_IDS + "[" + (size - 1) + "]", last.getProperty());
+            assertEquals(Integer.class, last.getJavaType());
+            assertEquals(JdbcType.INTEGER, last.getJdbcType());
+        }
+        // the expanded sql is cached up to 1024 ids
+        List<Integer> ids = Collections.nCopies(1024, 1);
+        assertSame(ms.getBoundSql(Collections.singletonMap(Statement.PARAM_IDS, ids)).getSql(),
+                ms.getBoundSql(Collections.singletonMap(Statement.PARAM_IDS, ids)).getSql());
+
+        // lists above the cached size are read and deleted through the repository
+        PublisherDao dao = context.getBean(PublisherDao.class);
+        ids = new ArrayList<>();
+        for (int i = 1; i <= 1500; i++) {
+            ids.add(i);
+        }
+        assertEquals(7, dao.findAllById(ids).size());
+        dao.deleteAllById(ids);
+        assertEquals(0L, dao.count());
+    }
+
+    @Test
+    public void testBindNullWithJdbcType() {
+        MappedStatement ms = statement(PublisherDao.class, Statement.INSERT);
+        Publisher publisher = new Publisher("null-place", null);
+        ParameterMapping place = ms.getBoundSql(publisher).getParameterMappings().stream()
+                .filter(mapping -> mapping.getProperty().equals("place"))
+                .findFirst().get();
+        // a null is bound with the jdbcType of the mapping, not with jdbcTypeForNull
+        assertEquals(JdbcType.VARCHAR, place.getJdbcType());
+        assertTrue(place.getTypeHandler() instanceof StringTypeHandler);
+
+        PublisherDao dao = context.getBean(PublisherDao.class);
+        dao.save(publisher);
+        assertNull(dao.findById(publisher.getId()).get().getPlace());
+    }
+
+    @Test
+    public void testMapColumnNamesWithoutAutoMapping() {
+        MappedStatement ms = statement(NamedPublisherDao.class, Statement.FIND_BY_ID);
+        assertFalse(ms.getResultMaps().get(0).getAutoMapping());
+
+        NamedPublisher publisher = context.getBean(NamedPublisherDao.class).findById(2).get();
+        assertEquals("OReilly", publisher.getTitle());
+        assertEquals("Sebastopol, CA", publisher.getCity());
+        assertEquals(Integer.valueOf(0), publisher.getVersion());
+    }
+
+}
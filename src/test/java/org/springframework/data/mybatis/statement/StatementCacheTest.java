@@ -0,0 +1,80 @@
+package org.springframework.data.mybatis.statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.function.Function;
+
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mybatis.statement.page.Count;
+import org.springframework.data.mybatis.statement.page.OrderByAndLimit;
+import org.springframework.data.relational.core.dialect.H2Dialect;
+
+public class StatementCacheTest {
+
+    private static final String STATEMENT_ID = "test.findAll";
+    private static final String SQL = "SELECT o.* FROM lib_publisher o";
+
+    private final Configuration config = new Configuration();
+
+    private static OrderByAndLimit page(Pageable pageable, Function<String, String> idColumns) {
+        return new OrderByAndLimit(STATEMENT_ID, SQL, Collections.emptyList(), Collections.emptyList(),
+                pageable, H2Dialect.INSTANCE, idColumns);
+    }
+
+    @Test
+    public void testReuseStatementOfSameShape() {
+        StatementCache cache = new StatementCache();
+        Sort sort = Sort.by("name");
+        MappedStatement ms = cache.get(config, page(PageRequest.of(0, 10, sort), null));
+        // offset and size are bound parameters, other pages of the same sort share the statement
+        assertSame(ms, cache.get(config, page(PageRequest.of(3, 10, sort), null)));
+        assertSame(ms, cache.get(config, page(PageRequest.of(0, 50, Sort.by("name")), null)));
+        assertEquals(1, cache.size());
+        // generated statements are kept out of mybatis configuration
+        assertTrue(config.getMappedStatementNames().isEmpty());
+    }
+
+    @Test
+    public void testSeparateStatementsOfDifferentShapes() {
+        StatementCache cache = new StatementCache();
+        MappedStatement byName = cache.get(config, page(PageRequest.of(0, 10, Sort.by("name")), null));
+        MappedStatement byNameDesc = cache.get(config, page(PageRequest.of(0, 10, Sort.by(Direction.DESC, "name")), null));
+        MappedStatement byPlace = cache.get(config, page(PageRequest.of(0, 10, Sort.by("place")), null));
+        MappedStatement unsorted = cache.get(config, page(PageRequest.of(0, 10), null));
+        MappedStatement deferredJoin = cache.get(config, page(PageRequest.of(0, 10, Sort.by("name")), table -> "id"));
+        MappedStatement count = cache.get(config, new Count(STATEMENT_ID, SQL, Collections.emptyList()));
+
+        assertNotSame(byName, byNameDesc);
+        assertNotSame(byName, byPlace);
+        assertNotSame(byName, unsorted);
+        assertNotSame(byName, deferredJoin);
+        assertTrue(byName.getBoundSql(null).getSql().endsWith("ORDER BY name ASC LIMIT ? OFFSET ?"));
+        assertTrue(byNameDesc.getBoundSql(null).getSql().contains("ORDER BY name DESC"));
+        assertTrue(count.getBoundSql(null).getSql().startsWith("SELECT COUNT(*)"));
+        assertEquals(6, cache.size());
+    }
+
+    @Test
+    public void testBoundedSize() {
+        int maxSize = 20;
+        StatementCache cache = new StatementCache(maxSize);
+        MappedStatement first = cache.get(config, page(PageRequest.of(0, 10, Sort.by("c0")), null));
+        for (int i = 1; i < 100; i++) {
+            cache.get(config, page(PageRequest.of(0, 10, Sort.by("c" + i)), null));
+            assertTrue(cache.size() <= maxSize);
+        }
+        // the least recently used statement is evicted and built again
+        assertNotSame(first, cache.get(config, page(PageRequest.of(0, 10, Sort.by("c0")), null)));
+    }
+
+}
@@ -4,6 +4,7 @@ CREATE TABLE `lib_publisher` (
   `id` int NOT NULL AUTO_INCREMENT,
   `name` varchar(40) NOT NULL,
   `place` varchar(32) DEFAULT NULL,
+  `version` int DEFAULT 0,
   PRIMARY KEY (`id`)
 );
 insert into `lib_publisher`(`name`,`place`) values 